@@ -1,8 +1,10 @@
 package com.aviation.config;
 
+import com.aviation.service.RouteCacheKeyIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,14 +12,18 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableCaching
@@ -25,8 +31,23 @@ public class CacheConfig {
 
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
 
+    @Value("${aviation.cache.routes.ttl:10m}")
+    private Duration routesTtl;
+
+    @Value("${aviation.cache.routes.stale-grace:5m}")
+    private Duration routesStaleGrace;
+
+    @Value("${aviation.cache.routes.refresh-beta:1.0}")
+    private double routesRefreshBeta;
+
+    @Value("${aviation.cache.route-misses.ttl:1m}")
+    private Duration routeMissesTtl;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                          RouteCacheKeyIndex routeCacheKeyIndex,
+                                          CacheGenerations cacheGenerations,
+                                          ThreadPoolTaskExecutor cacheRefreshExecutor) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
@@ -35,20 +56,70 @@ public class CacheConfig {
                 .entryTtl(Duration.ofMinutes(10));
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        cacheConfigurations.put("routes", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+        // Route entries outlive their logical TTL by the grace window so they can be served stale
+        cacheConfigurations.put("routes", defaultConfig.entryTtl(routesTtl.plus(routesStaleGrace)));
+        cacheConfigurations.put("routeLegs", defaultConfig.entryTtl(routesTtl));
+        // Negative results are plain string markers (see NegativeResultCache)
+        cacheConfigurations.put("routeMisses", defaultConfig.entryTtl(routeMissesTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())));
         cacheConfigurations.put("locations", defaultConfig.entryTtl(Duration.ofMinutes(30)));
         cacheConfigurations.put("transportations", defaultConfig.entryTtl(Duration.ofMinutes(30)));
+        // Serialized response bodies (see ResponseBodyCache), stored as raw bytes
+        RedisCacheConfiguration responseConfig = defaultConfig
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.byteArray());
+        cacheConfigurations.put("routeResponses", responseConfig.entryTtl(routesTtl));
+        cacheConfigurations.put("locationResponses", responseConfig.entryTtl(Duration.ofMinutes(30)));
+        cacheConfigurations.put("transportationResponses", responseConfig.entryTtl(Duration.ofMinutes(30)));
 
         RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
 
         return new RedisCacheManager(cacheWriter, defaultConfig, cacheConfigurations) {
+            private final Supplier<Cache> routeMisses = () -> getCache("routeMisses");
+
             @Override
             protected Cache decorateCache(Cache cache) {
-                return new LoggingCache(super.decorateCache(cache));
+                // Clears bump a generation counter instead of scanning and deleting keys
+                Cache decorated = new GenerationalCache(super.decorateCache(cache), cacheGenerations);
+                if ("routes".equals(cache.getName())) {
+                    // Keeps hot searches warm and serves the last value while a refresh runs or fails
+                    decorated = new RefreshAheadCache(decorated, routesTtl, routesRefreshBeta, cacheRefreshExecutor);
+                    // Lets admin changes evict only the affected entries (see RouteCacheInvalidator)
+                    decorated = new KeyIndexingCache(decorated, routeCacheKeyIndex);
+                    // Empty results and unknown locations go to the short-lived routeMisses cache instead
+                    decorated = new NegativeResultCache(decorated, routeMisses);
+                }
+                return new LoggingCache(decorated);
             }
         };
     }
 
+    @Bean
+    public RedisMessageListenerContainer cacheGenerationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                          CacheGenerations cacheGenerations,
+                                          ThreadPoolTaskExecutor cacheRefreshExecutor) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheGenerations, new ChannelTopic(CacheGenerations.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Small bounded pool for background cache refreshes; when it is saturated refreshes are dropped
+     * and the entry is simply refreshed by a later read. Managed by Spring, so on shutdown the refreshes
+     * already accepted get up to 30 seconds to finish instead of dying with their lock held.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(256);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
     /**
      * A Cache decorator that logs HIT/MISS/PUT/EVICT/CLEAR operations.
      */
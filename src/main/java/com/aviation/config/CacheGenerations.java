@@ -0,0 +1,75 @@
+package com.aviation.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generation counters that namespace every cache's keys, stored in Redis and mirrored locally.
+ *
+ * <p>Clearing a cache only increments its counter: entries written under older generations become
+ * unreachable and age out through their TTL, so a clear costs O(1) regardless of the cache size.
+ * Each increment is broadcast on {@value #CHANNEL} so other instances switch generation immediately;
+ * the local copy is also re-read from Redis every few seconds in case a message is lost.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheGenerations implements MessageListener {
+
+    static final String CHANNEL = "cache-generations";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheGenerations.class);
+
+    private static final String KEY_PREFIX = "cache-generation:";
+    private static final long RESYNC_INTERVAL_MILLIS = 5_000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    public long current(String cacheName) {
+        var generation = generations.get(cacheName);
+        long now = System.currentTimeMillis();
+        if (generation == null || now - generation.syncedAt() > RESYNC_INTERVAL_MILLIS) {
+            // Redis is authoritative on resync, even if it went backwards after a flush
+            var stored = redisTemplate.opsForValue().get(KEY_PREFIX + cacheName);
+            generation = new Generation(stored != null ? Long.parseLong(stored) : 0L, now);
+            generations.put(cacheName, generation);
+        }
+        return generation.value();
+    }
+
+    public long advance(String cacheName) {
+        Long value = redisTemplate.opsForValue().increment(KEY_PREFIX + cacheName);
+        long next = value != null ? value : current(cacheName) + 1;
+        observe(cacheName, next);
+        redisTemplate.convertAndSend(CHANNEL, cacheName + ":" + next);
+        log.debug("Cache [{}] advanced to generation {}", cacheName, next);
+        return next;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator > 0) {
+            observe(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        }
+    }
+
+    private void observe(String cacheName, long value) {
+        var observed = new Generation(value, System.currentTimeMillis());
+        generations.merge(cacheName, observed, (known, update) -> update.value() > known.value() ? update : known);
+    }
+
+    private record Generation(long value, long syncedAt) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.aviation.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Lets clients exchange {@code application/cbor} instead of JSON, chosen by the {@code Accept} header
+ * for responses (including error responses) and by {@code Content-Type} for request bodies.
+ *
+ * <p>The CBOR mapper is built from Spring Boot's customized builder, so it registers the same modules
+ * and date handling as the JSON mapper and both formats describe the same documents.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
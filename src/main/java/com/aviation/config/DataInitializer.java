@@ -58,14 +58,14 @@ public class DataInitializer implements CommandLineRunner {
         }
 
         // --- Locations ---
-        Location taksimSquare = createLocation("Taksim Square", "Turkey", "Istanbul", "CCIST");
-        Location istanbulAirport = createLocation("Istanbul Airport", "Turkey", "Istanbul", "IST");
-        Location sabihaGokcen = createLocation("Sabiha Gokcen Airport", "Turkey", "Istanbul", "SAW");
-        Location londonHeathrow = createLocation("London Heathrow Airport", "United Kingdom", "London", "LHR");
-        Location wembleyStadium = createLocation("Wembley Stadium", "United Kingdom", "London", "WEMB");
-        Location kabatasPier = createLocation("Kabatas Pier", "Turkey", "Istanbul", "KBTSP");
-        Location ankaraEsenboga = createLocation("Ankara Esenboga Airport", "Turkey", "Ankara", "ESB");
-        Location ankaraCityCentre = createLocation("Ankara City Centre", "Turkey", "Ankara", "CCANK");
+        Location taksimSquare = createLocation("Taksim Square", "Turkey", "Istanbul", "CCIST", 41.0370, 28.9850);
+        Location istanbulAirport = createLocation("Istanbul Airport", "Turkey", "Istanbul", "IST", 41.2753, 28.7519);
+        Location sabihaGokcen = createLocation("Sabiha Gokcen Airport", "Turkey", "Istanbul", "SAW", 40.8986, 29.3092);
+        Location londonHeathrow = createLocation("London Heathrow Airport", "United Kingdom", "London", "LHR", 51.4700, -0.4543);
+        Location wembleyStadium = createLocation("Wembley Stadium", "United Kingdom", "London", "WEMB", 51.5560, -0.2796);
+        Location kabatasPier = createLocation("Kabatas Pier", "Turkey", "Istanbul", "KBTSP", 41.0330, 28.9920);
+        Location ankaraEsenboga = createLocation("Ankara Esenboga Airport", "Turkey", "Ankara", "ESB", 40.1281, 32.9951);
+        Location ankaraCityCentre = createLocation("Ankara City Centre", "Turkey", "Ankara", "CCANK", 39.9208, 32.8541);
 
         log.info("Sample locations created: {} locations", locationRepository.count());
 
@@ -99,12 +99,15 @@ public class DataInitializer implements CommandLineRunner {
         log.info("Sample transportations created: {} transportations", transportationRepository.count());
     }
 
-    private Location createLocation(String name, String country, String city, String locationCode) {
+    private Location createLocation(String name, String country, String city, String locationCode,
+                                    double latitude, double longitude) {
         Location location = new Location();
         location.setName(name);
         location.setCountry(country);
         location.setCity(city);
         location.setLocationCode(locationCode);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
         return locationRepository.save(location);
     }
 
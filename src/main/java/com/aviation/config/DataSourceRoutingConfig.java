@@ -0,0 +1,124 @@
+package com.aviation.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read/write splitting, enabled with {@code aviation.datasource.replicas.enabled=true}: read-only transactions,
+ * which include every route search, run on the replicas listed in {@code aviation.datasource.replicas.urls}
+ * and everything else on the primary configured under {@code spring.datasource}.
+ *
+ * <p>Each target gets its own Hikari pool, named after the target and registered as a JMX MBean
+ * ({@code com.zaxxer.hikari:type=Pool (replica-1)}); the same figures are served by {@code /api/datasources/stats}.
+ * Replicas use the primary's credentials and driver. Instances share the replica write watermark through
+ * Redis, so any number of them can route reads to the same replicas; a write through any of them keeps every
+ * instance's reads on the primary until a replica has replayed it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "aviation.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    @Value("${aviation.datasource.replicas.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${aviation.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${aviation.datasource.replicas.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${aviation.datasource.replicas.heartbeat-interval:1s}")
+    private Duration heartbeatInterval;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        pool.setRegisterMbeans(true);
+        return pool;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPools replicaPools(DataSourceProperties properties) {
+        var pools = new LinkedHashMap<String, HikariDataSource>();
+        for (var url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            var pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setUsername(properties.determineUsername());
+            pool.setPassword(properties.determinePassword());
+            pool.setMaximumPoolSize(replicaPoolSize);
+            pool.setReadOnly(true);
+            pool.setRegisterMbeans(true);
+            pools.put(pool.getPoolName(), pool);
+        }
+        if (pools.isEmpty()) {
+            log.warn("Replica routing is enabled but no replica URLs are configured; all reads go to the primary");
+        }
+        return new ReplicaPools(pools);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, ReplicaPools replicaPools,
+                                               StringRedisTemplate redisTemplate,
+                                               RedisMessageListenerContainer cacheGenerationListenerContainer) {
+        // Every instance beats on its own heartbeat row
+        var monitor = new ReplicaLagMonitor(primaryDataSource, new LinkedHashMap<String, DataSource>(replicaPools.pools()),
+                maxLag, Clock.systemUTC(), redisTemplate, UUID.randomUUID().toString());
+        cacheGenerationListenerContainer.addMessageListener(monitor, new ChannelTopic(ReplicaLagMonitor.WATERMARK_KEY));
+        monitor.start(heartbeatInterval);
+        return monitor;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaPools replicaPools,
+                                                             ReplicaLagMonitor replicaLagMonitor) {
+        log.info("Routing read-only transactions to {} replica(s), max lag {}", replicaPools.pools().size(), maxLag);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaPools.pools(), replicaLagMonitor);
+    }
+
+    /**
+     * The application's {@link DataSource}: defers the routing decision to the first statement of a transaction.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Replica pools by target name, in configuration order.
+     */
+    public record ReplicaPools(Map<String, HikariDataSource> pools) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            pools.values().forEach(HikariDataSource::close);
+        }
+    }
+}
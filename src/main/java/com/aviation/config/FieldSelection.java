@@ -0,0 +1,115 @@
+package com.aviation.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Sparse fieldset requested through a {@code fields=} query parameter, e.g.
+ * {@code fields=segments.type,segments.segmentType,segments.from.locationCode}.
+ *
+ * <p>Paths are dot-separated property names relative to each returned element; naming a property keeps
+ * its whole subtree. The selection is applied by a Jackson property filter while serializing, so
+ * unrequested properties are never written, and it becomes part of the response cache key.
+ *
+ * @param basePath property holding the elements when they are wrapped, e.g. {@code content} for a page;
+ *                 properties outside it are always written
+ */
+public record FieldSelection(String basePath, SortedSet<String> paths) {
+
+    static final String FILTER_ID = "fields";
+
+    private static final FieldSelection ALL = new FieldSelection(null, Collections.emptySortedSet());
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public static FieldSelection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        var paths = new TreeSet<String>();
+        for (var path : fields.split(",")) {
+            if (!path.isBlank()) {
+                paths.add(path.trim());
+            }
+        }
+        return paths.isEmpty() ? ALL : new FieldSelection(null, Collections.unmodifiableSortedSet(paths));
+    }
+
+    public FieldSelection within(String basePath) {
+        return isAll() ? this : new FieldSelection(basePath, paths);
+    }
+
+    public boolean isAll() {
+        return paths.isEmpty();
+    }
+
+    /**
+     * Canonical form used in cache keys: the same selection in any order maps to the same entry.
+     */
+    String cacheSuffix() {
+        return "fields=" + String.join(",", paths);
+    }
+
+    SimpleFilterProvider filterProvider() {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, new PathFilter());
+    }
+
+    private boolean includes(String path) {
+        if (basePath != null) {
+            if (!path.startsWith(basePath + ".")) {
+                return true;
+            }
+            path = path.substring(basePath.length() + 1);
+        }
+        for (var selected : paths) {
+            if (selected.equals(path) || selected.startsWith(path + ".") || path.startsWith(selected + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mix-in that attaches the filter to every bean, applied only to the mappers used for sparse responses.
+     */
+    @JsonFilter(FILTER_ID)
+    interface FilteredMixin {
+    }
+
+    private final class PathFilter extends SimpleBeanPropertyFilter {
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (includes(pathOf(generator.getOutputContext(), writer.getName()))) {
+                writer.serializeAsField(pojo, generator, provider);
+            } else if (!generator.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, generator, provider);
+            }
+        }
+
+        private static String pathOf(JsonStreamContext context, String property) {
+            var names = new ArrayDeque<String>();
+            names.push(property);
+            // Walk up from the object being written; arrays contribute no name
+            for (var parent = context.getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.inObject() && parent.getCurrentName() != null) {
+                    names.push(parent.getCurrentName());
+                }
+            }
+            return String.join(".", names);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.aviation.config;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Prefixes every key with the cache's current generation and turns {@link #clear()} into a
+ * generation bump, avoiding the pattern scan and mass delete a Redis cache clear would perform.
+ */
+class GenerationalCache extends DelegatingCache {
+
+    private final CacheGenerations generations;
+
+    GenerationalCache(Cache delegate, CacheGenerations generations) {
+        super(delegate);
+        this.generations = generations;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(versioned(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(versioned(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(versioned(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(versioned(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(versioned(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(versioned(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(versioned(key));
+    }
+
+    @Override
+    public void clear() {
+        generations.advance(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        generations.advance(getName());
+        return true;
+    }
+
+    private String versioned(Object key) {
+        return "g" + generations.current(getName()) + ":" + key;
+    }
+}
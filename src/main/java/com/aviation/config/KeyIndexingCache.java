@@ -0,0 +1,68 @@
+package com.aviation.config;
+
+import com.aviation.service.RouteCacheKey;
+import com.aviation.service.RouteCacheKeyIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Registers every entry written to the {@code routes} cache in the {@link RouteCacheKeyIndex},
+ * so admin changes can evict exactly the entries they affect.
+ *
+ * <p>Response bodies are registered by {@link ResponseBodyCache} instead, which still holds the value
+ * the bytes were rendered from.
+ */
+class KeyIndexingCache extends DelegatingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyIndexingCache.class);
+
+    private final RouteCacheKeyIndex keyIndex;
+
+    KeyIndexingCache(Cache delegate, RouteCacheKeyIndex keyIndex) {
+        super(delegate);
+        this.keyIndex = keyIndex;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, () -> {
+            T value = valueLoader.call();
+            register(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // Index first: a key indexed without an entry is harmless, an entry without an index is not evictable
+        register(key, value);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        register(key, value);
+        return delegate.putIfAbsent(key, value);
+    }
+
+    private void register(Object key, Object value) {
+        register(keyIndex, key, value);
+    }
+
+    /**
+     * Indexes {@code key} by the locations embedded in {@code value}; a failure is logged and not propagated,
+     * so an unavailable index never fails the read that fills the cache.
+     */
+    static void register(RouteCacheKeyIndex keyIndex, Object key, Object value) {
+        if (key instanceof RouteCacheKey routeKey) {
+            try {
+                keyIndex.register(routeKey, value);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to index route cache key {}: {}", key, ex.getMessage());
+            }
+        }
+    }
+}
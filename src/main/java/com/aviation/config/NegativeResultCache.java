@@ -0,0 +1,95 @@
+package com.aviation.config;
+
+import com.aviation.exception.LocationNotFoundException;
+import com.aviation.service.RouteCacheKey;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperationInvoker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Remembers route searches that found nothing, and searches for unknown locations, in a separate
+ * short-lived cache so repeated junk requests never reach the database.
+ *
+ * <p>Outcomes are stored as compact string markers instead of full values:
+ * <ul>
+ *   <li>{@value #NO_ROUTE}: the search found no route; replayed as an empty list</li>
+ *   <li>{@value #UNKNOWN_LOCATION} followed by the message: an origin or destination did not exist;
+ *       replayed as a {@link LocationNotFoundException}</li>
+ * </ul>
+ * Neither outcome is written to the wrapped cache, and a refreshed entry that comes back empty is evicted
+ * from it, so the marker answers from then on. Markers are checked before the loader runs, so a repeated
+ * miss never reaches the database. Markers are cleared by {@code RouteCacheInvalidator}
+ * whenever a location or transportation is added.
+ */
+class NegativeResultCache extends DelegatingCache {
+
+    static final String NO_ROUTE = "0";
+    static final String UNKNOWN_LOCATION = "?";
+
+    private final Supplier<Cache> misses;
+
+    NegativeResultCache(Cache delegate, Supplier<Cache> misses) {
+        super(delegate);
+        this.misses = misses;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!(key instanceof RouteCacheKey)) {
+            return delegate.get(key, valueLoader);
+        }
+        try {
+            return delegate.get(key, () -> {
+                String marker = misses.get().get(key, String.class);
+                if (marker != null) {
+                    throw new KnownMiss(marker);
+                }
+                return remember(key, valueLoader.call());
+            });
+        } catch (ValueRetrievalException ex) {
+            if (ex.getCause() instanceof KnownMiss miss) {
+                if (miss.marker.startsWith(UNKNOWN_LOCATION)) {
+                    throw new ValueRetrievalException(key, valueLoader,
+                            new LocationNotFoundException(miss.marker.substring(UNKNOWN_LOCATION.length())));
+                }
+                return (T) new ArrayList<>();
+            }
+            if (original(ex.getCause()) instanceof LocationNotFoundException notFound) {
+                misses.get().put(key, UNKNOWN_LOCATION + notFound.getMessage());
+            }
+            throw ex;
+        }
+    }
+
+    private <T> T remember(Object key, T value) {
+        if (value instanceof Collection<?> collection && collection.isEmpty()) {
+            misses.get().put(key, NO_ROUTE);
+            throw new KnownMiss(NO_ROUTE);
+        }
+        return value;
+    }
+
+    private static Throwable original(Throwable cause) {
+        // @Cacheable loaders wrap what the cached method throws
+        return cause instanceof CacheOperationInvoker.ThrowableWrapper wrapper ? wrapper.getOriginal() : cause;
+    }
+
+    /**
+     * Aborts the load so the outcome is not written to the wrapped cache. A background refresh that ends
+     * this way has found nothing, and {@link RefreshAheadCache} drops the stale entry.
+     */
+    static final class KnownMiss extends RuntimeException {
+
+        private final String marker;
+
+        private KnownMiss(String marker) {
+            super(null, null, false, false);
+            this.marker = marker;
+        }
+    }
+}
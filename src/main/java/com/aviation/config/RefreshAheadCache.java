@@ -0,0 +1,172 @@
+package com.aviation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps hot entries warm: values are refreshed in the background shortly before they expire and,
+ * once expired, served stale while a background refresh runs.
+ *
+ * <ul>
+ *   <li><b>Refresh-ahead</b>: each read of a fresh entry triggers an early asynchronous refresh with
+ *       probability rising towards expiry, scaled by how long the value took to compute
+ *       ("XFetch": refresh when {@code now - computeTime * beta * ln(rand) >= expiry}).</li>
+ *   <li><b>Stale-while-revalidate / stale-on-error</b>: the backing store keeps entries for
+ *       {@code ttl + grace}; past {@code ttl} the last value is still returned while a refresh runs,
+ *       and if the refresh fails it keeps being returned until the grace window ends.</li>
+ * </ul>
+ * Refreshes reuse the loader handed over by {@code @Cacheable(sync = true)}, run on a small bounded
+ * executor and are deduplicated per key. Cold misses are loaded once per key, concurrent readers wait for it.
+ */
+class RefreshAheadCache extends DelegatingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final long ttlMillis;
+    private final double beta;
+    private final Executor refreshExecutor;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    RefreshAheadCache(Cache delegate, Duration ttl, double beta, Executor refreshExecutor) {
+        super(delegate);
+        this.ttlMillis = ttl.toMillis();
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof CachedValue cached) {
+            return new SimpleValueWrapper(cached.value());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof CachedValue cached) {
+            long now = System.currentTimeMillis();
+            if (isStale(cached, now) || shouldRefreshEarly(cached, now)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) cached.value();
+        }
+        return load(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, new CachedValue(value, System.currentTimeMillis(), 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, new CachedValue(value, System.currentTimeMillis(), 0));
+        if (existing != null && existing.get() instanceof CachedValue cached) {
+            return new SimpleValueWrapper(cached.value());
+        }
+        return existing;
+    }
+
+    private boolean isStale(CachedValue cached, long now) {
+        return now - cached.writtenAt() >= ttlMillis;
+    }
+
+    private boolean shouldRefreshEarly(CachedValue cached, long now) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        double headStart = -cached.computeMillis() * beta * Math.log(random);
+        return now + headStart >= cached.writtenAt() + ttlMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        String id = key.toString();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inProgress = loading.putIfAbsent(id, future);
+        if (inProgress != null) {
+            try {
+                return (T) inProgress.join();
+            } catch (CompletionException ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+        try {
+            T value = compute(key, valueLoader);
+            future.complete(value);
+            return value;
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loading.remove(id, future);
+        }
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        String id = key.toString();
+        if (!refreshing.add(id)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    compute(key, valueLoader);
+                    log.debug("CACHE REFRESH [{}] key={}", getName(), key);
+                } catch (NegativeResultCache.KnownMiss miss) {
+                    // The refresh succeeded with nothing to keep: the miss marker answers from now on
+                    delegate.evict(key);
+                    log.debug("CACHE REFRESH [{}] key={} found nothing, entry evicted", getName(), key);
+                } catch (Exception ex) {
+                    log.warn("CACHE REFRESH FAILED [{}] key={}, serving last value: {}", getName(), key, ex.toString());
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(id);
+        }
+    }
+
+    private <T> T compute(Object key, Callable<T> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        T value = valueLoader.call();
+        long computeMillis = (System.nanoTime() - start) / 1_000_000;
+        delegate.put(key, new CachedValue(value, System.currentTimeMillis(), computeMillis));
+        return value;
+    }
+
+    /**
+     * Stored envelope: the cached value plus when and how expensively it was computed.
+     */
+    public record CachedValue(Object value, long writtenAt, long computeMillis) {
+    }
+}
@@ -0,0 +1,326 @@
+package com.aviation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how far each read replica trails the primary and picks the replicas a read-only transaction may use.
+ *
+ * <p>Lag is measured with a heartbeat: every interval this instance sets its own {@value #HEARTBEAT_TABLE}
+ * row on the primary to the primary's {@code CURRENT_TIMESTAMP}, and each replica is asked for the latest
+ * heartbeat it has replayed from any instance. Replication applies commits in order, so a replica holding
+ * heartbeat {@code h} has every commit made before {@code h} was taken. All times come from the primary's
+ * clock, so skew between the application hosts does not matter; the local clock only ages the last
+ * measurement between probes. This works with any database and replication technology, and an unreachable
+ * replica or one without the table simply never qualifies.
+ *
+ * <p>Heartbeats are only ever taken on the monitor's own thread, with a connection it holds for nothing else; the
+ * table is part of the schema (see {@link com.aviation.entity.ReplicationHeartbeat}).
+ *
+ * <p>A replica qualifies when it is at most {@code max-lag} behind and has replayed a heartbeat taken after
+ * the latest committed write (see {@link #markWrite}). That heartbeat is the write watermark. It is shared
+ * with the other instances under its own Redis key, {@value #WATERMARK_KEY}, and broadcast on the channel of
+ * the same name, so after an admin mutation on any instance, reads everywhere stay on the primary until a
+ * replica has caught up with it. The mutating admin reads their own write, and route caches refilled after
+ * the invalidation never pick up the pre-write state from a replica.
+ *
+ * <p>The watermark is global rather than per client: one write sends every read-only transaction of every
+ * instance to the primary until a replica has replayed it, usually within a heartbeat or two. Admin writes are
+ * rare and invalidate shared caches that any client may refill, so per-client stickiness would not be enough.
+ */
+public class ReplicaLagMonitor implements MessageListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String HEARTBEAT_TABLE = "replication_heartbeat";
+    static final String WATERMARK_KEY = "replica-write-watermark";
+
+    // Lua numbers are doubles, exact up to 2^53
+    private static final RedisScript<Long> RAISE = RedisScript.of("""
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local value = tonumber(ARGV[1])
+            if value > current then
+                redis.call('SET', KEYS[1], ARGV[1])
+                return value
+            end
+            return current
+            """, Long.class);
+
+    // Rows of instances that stopped beating this long ago are dropped
+    private static final Duration ABANDONED_AFTER = Duration.ofDays(1);
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> names;
+    private final Duration maxLag;
+    private final Clock clock;
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId;
+
+    // Latest heartbeat (primary epoch micros) each replica has replayed; absent while unknown or unreachable
+    private final Map<String, Long> replayedUpTo = new ConcurrentHashMap<>();
+    // Replicas must have replayed this heartbeat (primary epoch micros) or a later one to serve reads
+    private final AtomicLong writeWatermark = new AtomicLong(Long.MIN_VALUE);
+    // Latest watermark of any instance as last read from Redis or broadcast; unknown until the first probe
+    private final AtomicLong sharedWatermark = new AtomicLong(Long.MAX_VALUE);
+    // Writes committed here, and how many of them the watermark covers; reads stay on the primary in between
+    private final AtomicLong writesMarked = new AtomicLong();
+    private volatile long writesCovered;
+    private final AtomicBoolean beatRequested = new AtomicBoolean();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile Beat lastBeat;
+    private volatile boolean abandonedRowsDropped;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Clock clock,
+                             StringRedisTemplate redisTemplate, String instanceId) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+        this.names = List.copyOf(replicas.keySet());
+        this.maxLag = maxLag;
+        this.clock = clock;
+        this.redisTemplate = redisTemplate;
+        this.instanceId = instanceId;
+    }
+
+    /**
+     * Probes now and then every {@code interval} on a background thread.
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+        scheduler.scheduleWithFixedDelay(this::probe, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a heartbeat to the primary, then reads back the latest heartbeat each replica has replayed.
+     * A heartbeat taken after writes were marked becomes the write watermark and is shared.
+     */
+    public void probe() {
+        beatRequested.set(false);
+        long marked = writesMarked.get();
+        try {
+            long beat = beat();
+            if (marked > writesCovered) {
+                raiseWatermark(beat);
+                writesCovered = marked;
+            }
+        } catch (SQLException ex) {
+            log.warn("Heartbeat write to primary failed: {}", ex.getMessage());
+        }
+        syncSharedWatermark();
+        for (var name : names) {
+            try (Connection connection = replicas.get(name).getConnection();
+                 var statement = connection.prepareStatement("SELECT MAX(beat_at) FROM " + HEARTBEAT_TABLE);
+                 var result = statement.executeQuery()) {
+                var replayed = result.next() ? result.getTimestamp(1) : null;
+                if (replayed != null) {
+                    replayedUpTo.put(name, micros(replayed));
+                } else {
+                    replayedUpTo.remove(name);
+                }
+            } catch (SQLException ex) {
+                if (replayedUpTo.remove(name) != null) {
+                    log.warn("Replica {} is unavailable, reads fall back to the primary: {}", name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a write has just been committed on the primary. Call after the commit.
+     *
+     * <p>Touches neither the database nor Redis: reads on this instance stay on the primary from now on, and
+     * a heartbeat is requested from the monitor's thread. That heartbeat, taken after the commit, becomes the
+     * watermark replicas must replay before they serve reads again, and is shared from that thread.
+     */
+    public void markWrite() {
+        writesMarked.incrementAndGet();
+        var executor = scheduler;
+        if (executor != null && beatRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::probe);
+            } catch (RejectedExecutionException ex) {
+                // Shutting down; the write is still covered by the next heartbeat, if any
+                beatRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Picks a qualifying replica, rotating between them, or returns {@code null} when none qualifies.
+     */
+    public String pickReplica() {
+        int size = names.size();
+        var beat = lastBeat;
+        if (size == 0 || beat == null || awaitingBeat()) {
+            return null;
+        }
+        long watermark = watermark();
+        long oldest = beat.primaryNow(clock) - maxLag.toNanos() / 1_000;
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            var name = names.get((start + i) % size);
+            var replayed = replayedUpTo.get(name);
+            if (replayed != null && replayed >= watermark && replayed >= oldest) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Milliseconds the replica trails the primary, {@code null} while unknown.
+     */
+    public Long lagMillis(String name) {
+        var replayed = replayedUpTo.get(name);
+        var beat = lastBeat;
+        return replayed != null && beat != null ? Math.max(0, beat.primaryNow(clock) - replayed) / 1_000 : null;
+    }
+
+    public boolean isCaughtUp(String name) {
+        var replayed = replayedUpTo.get(name);
+        return replayed != null && !awaitingBeat() && replayed >= watermark();
+    }
+
+    /**
+     * Picks up a watermark broadcast by another instance.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        long watermark = Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8));
+        sharedWatermark.accumulateAndGet(watermark, (known, update) -> known == Long.MAX_VALUE ? update
+                : Math.max(known, update));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * The latest write watermark of any instance. Without the shared value, another instance's latest write
+     * may be missing from every replica, so none qualifies.
+     */
+    private long watermark() {
+        return Math.max(writeWatermark.get(), sharedWatermark.get());
+    }
+
+    private boolean awaitingBeat() {
+        return writesMarked.get() > writesCovered;
+    }
+
+    private void raiseWatermark(long beat) {
+        writeWatermark.accumulateAndGet(beat, Math::max);
+        try {
+            Long raised = redisTemplate.execute(RAISE, List.of(WATERMARK_KEY), String.valueOf(beat));
+            redisTemplate.convertAndSend(WATERMARK_KEY, String.valueOf(raised != null ? raised : beat));
+        } catch (RuntimeException ex) {
+            log.warn("Could not share the write watermark, other instances may read it from a replica: {}",
+                    ex.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the shared watermark in case a broadcast was lost. While Redis is unreachable it is unknown.
+     */
+    private void syncSharedWatermark() {
+        try {
+            var stored = redisTemplate.opsForValue().get(WATERMARK_KEY);
+            long watermark = stored != null ? Long.parseLong(stored) : Long.MIN_VALUE;
+            sharedWatermark.accumulateAndGet(watermark, (known, update) -> known == Long.MAX_VALUE ? update
+                    : Math.max(known, update));
+        } catch (RuntimeException ex) {
+            if (sharedWatermark.getAndSet(Long.MAX_VALUE) != Long.MAX_VALUE) {
+                log.warn("Shared write watermark unavailable, reads stay on the primary: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets this instance's heartbeat row to the primary's current time and returns that time in epoch micros.
+     */
+    private long beat() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            try (var update = connection.prepareStatement(
+                    "UPDATE " + HEARTBEAT_TABLE + " SET beat_at = CURRENT_TIMESTAMP WHERE instance_id = ?")) {
+                update.setString(1, instanceId);
+                if (update.executeUpdate() == 0) {
+                    try (var insert = connection.prepareStatement(
+                            "INSERT INTO " + HEARTBEAT_TABLE + " (instance_id, beat_at) VALUES (?, CURRENT_TIMESTAMP)")) {
+                        insert.setString(1, instanceId);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            Timestamp beatAt;
+            try (var select = connection.prepareStatement(
+                    "SELECT beat_at FROM " + HEARTBEAT_TABLE + " WHERE instance_id = ?")) {
+                select.setString(1, instanceId);
+                try (var result = select.executeQuery()) {
+                    result.next();
+                    beatAt = result.getTimestamp(1);
+                }
+            }
+            if (!abandonedRowsDropped) {
+                try (var delete = connection.prepareStatement("DELETE FROM " + HEARTBEAT_TABLE + " WHERE beat_at < ?")) {
+                    delete.setTimestamp(1, Timestamp.from(beatAt.toInstant().minus(ABANDONED_AFTER)));
+                    delete.executeUpdate();
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                abandonedRowsDropped = true;
+            }
+            long micros = micros(beatAt);
+            lastBeat = new Beat(micros, clock.millis());
+            return micros;
+        }
+    }
+
+    static long micros(Timestamp timestamp) {
+        var instant = timestamp.toInstant();
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    /**
+     * A heartbeat in primary time and the local time it was taken at.
+     */
+    private record Beat(long primaryMicros, long takenAtMillis) {
+
+        long primaryNow(Clock clock) {
+            return primaryMicros + Math.max(0, clock.millis() - takenAtMillis) * 1_000;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.aviation.config;
+
+import com.aviation.dto.DataSourceStatsDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the connections of read-only transactions ({@code @Transactional(readOnly = true)}) to a read replica
+ * chosen by {@link ReplicaLagMonitor}, and everything else to the primary.
+ *
+ * <p>Must sit behind a {@link LazyConnectionDataSourceProxy}: transaction managers ask for a connection before
+ * they publish the transaction's read-only flag, and the proxy defers the choice until the first statement.
+ * A read-only transaction falls back to the primary when no replica qualifies. Every read-write transaction
+ * that commits is reported to the monitor before any after-commit listener runs, so caches refilled by those
+ * listeners read the new state. The report is a memory write; the heartbeat and the shared watermark follow
+ * on the monitor's thread.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final Map<String, LongAdder> routed = new HashMap<>();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas,
+                                    ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        pools.put(PRIMARY, primary);
+        pools.putAll(replicas);
+        pools.keySet().forEach(name -> routed.put(name, new LongAdder()));
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var target = route();
+        routed.get(target).increment();
+        return target;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new WriteCommitted());
+            }
+            return PRIMARY;
+        }
+        var replica = lagMonitor.pickReplica();
+        if (replica == null) {
+            primaryFallbacks.increment();
+            return PRIMARY;
+        }
+        return replica;
+    }
+
+    public DataSourceStatsDTO getStats() {
+        var targets = new ArrayList<DataSourceStatsDTO.Target>();
+        pools.forEach((name, pool) -> {
+            boolean primary = PRIMARY.equals(name);
+            targets.add(poolStats(name, primary ? "PRIMARY" : "REPLICA", pool, routed.get(name).sum(),
+                    primary ? null : lagMonitor.lagMillis(name), primary ? null : lagMonitor.isCaughtUp(name)));
+        });
+        return new DataSourceStatsDTO(true, primaryFallbacks.sum(), targets);
+    }
+
+    /**
+     * Stats of the single pool of an application running without replicas.
+     */
+    public static DataSourceStatsDTO singlePoolStats(DataSource dataSource) {
+        var targets = new ArrayList<DataSourceStatsDTO.Target>();
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                targets.add(poolStats(PRIMARY, "PRIMARY", dataSource.unwrap(HikariDataSource.class), 0, null, null));
+            }
+        } catch (SQLException ex) {
+            // Not a Hikari pool; nothing to report
+        }
+        return new DataSourceStatsDTO(false, 0, targets);
+    }
+
+    private static DataSourceStatsDTO.Target poolStats(String name, String role, HikariDataSource pool, long routed,
+                                                       Long lagMillis, Boolean caughtUp) {
+        var mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null) {
+            // Pools start on their first connection
+            return new DataSourceStatsDTO.Target(name, role, 0, 0, 0, 0, routed, lagMillis, caughtUp);
+        }
+        return new DataSourceStatsDTO.Target(name, role, mxBean.getActiveConnections(), mxBean.getIdleConnections(),
+                mxBean.getTotalConnections(), mxBean.getThreadsAwaitingConnection(), routed, lagMillis, caughtUp);
+    }
+
+    private final class WriteCommitted implements TransactionSynchronization {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            lagMonitor.markWrite();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.aviation.config;
+
+import com.aviation.service.RouteCacheKey;
+import com.aviation.service.RouteCacheKeyIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the final JSON body of read endpoints, so a hit is written to the response as stored bytes
+ * without deserializing cached DTOs and serializing them again.
+ *
+ * <p>Bodies of at least {@code gzip-min-size} bytes are stored gzip-compressed and sent as-is to clients
+ * that accept gzip; other clients get them decompressed. Stored bodies are recognised as compressed by
+ * the gzip magic number, which a JSON document can never start with.
+ *
+ * <p>Bodies are rendered as JSON or, when the {@code Accept} header prefers it, as CBOR; each format is
+ * cached under its own key. CBOR documents cannot start with the gzip magic number either. A request
+ * accepting neither is rejected with {@link HttpMediaTypeNotAcceptableException} (406).
+ *
+ * <p>A {@link FieldSelection} restricts the written properties; sparse bodies are cached under their own key too.
+ *
+ * <p>Empty collections are not cached; they are cheap to produce and would only fill the cache with
+ * junk searches. Entries are evicted together with the object caches they are derived from; route bodies are
+ * registered in the {@link RouteCacheKeyIndex} under every location they embed, like the {@code routes} entries.
+ */
+@Component
+public class ResponseBodyCache {
+
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final List<MediaType> SUPPORTED_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    private final CacheManager cacheManager;
+    private final RouteCacheKeyIndex routeCacheKeyIndex;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    // Copies that attach the sparse fieldset filter to every bean; only used when fields are selected
+    private final ObjectMapper sparseJsonMapper;
+    private final ObjectMapper sparseCborMapper;
+
+    @Value("${aviation.cache.responses.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aviation.cache.responses.gzip-min-size:1024}")
+    private int gzipMinSize;
+
+    public ResponseBodyCache(CacheManager cacheManager, RouteCacheKeyIndex routeCacheKeyIndex, ObjectMapper objectMapper,
+                             MappingJackson2CborHttpMessageConverter cborConverter) {
+        this.cacheManager = cacheManager;
+        this.routeCacheKeyIndex = routeCacheKeyIndex;
+        this.jsonMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.sparseJsonMapper = jsonMapper.copy().addMixIn(Object.class, FieldSelection.FilteredMixin.class);
+        this.sparseCborMapper = cborMapper.copy().addMixIn(Object.class, FieldSelection.FilteredMixin.class);
+    }
+
+    /**
+     * Answers from the cached body stored under {@code key}, or computes the body with {@code loader},
+     * serializes it once and caches the bytes.
+     */
+    public ResponseEntity<byte[]> respond(String cacheName, Object key, HttpServletRequest request, Supplier<?> loader)
+            throws HttpMediaTypeNotAcceptableException {
+        return respond(cacheName, key, request, FieldSelection.all(), loader);
+    }
+
+    /**
+     * Same as {@link #respond(String, Object, HttpServletRequest, Supplier)}, writing only the selected fields.
+     * A {@code null} cache name renders the body without caching it.
+     */
+    public ResponseEntity<byte[]> respond(String cacheName, Object key, HttpServletRequest request,
+                                          FieldSelection fields, Supplier<?> loader)
+            throws HttpMediaTypeNotAcceptableException {
+        boolean cbor = MediaType.APPLICATION_CBOR.equals(negotiate(request));
+        var storeKey = key;
+        if (!fields.isAll()) {
+            storeKey = variantKey(storeKey, fields.cacheSuffix());
+        }
+        if (cbor) {
+            storeKey = variantKey(storeKey, "cbor");
+        }
+        var cache = enabled && cacheName != null ? cacheManager.getCache(cacheName) : null;
+        byte[] body = cache != null ? cache.get(storeKey, byte[].class) : null;
+        if (body == null) {
+            Object value = loader.get();
+            body = encode(value, cbor, fields);
+            if (cache != null && !(value instanceof Collection<?> collection && collection.isEmpty())) {
+                // Index first, from the value: the stored bytes no longer tell which locations they embed
+                KeyIndexingCache.register(routeCacheKeyIndex, storeKey, value);
+                cache.put(storeKey, body);
+            }
+        }
+
+        var response = ResponseEntity.ok()
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (!isGzip(body)) {
+            return response.body(body);
+        }
+        if (acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body);
+        }
+        return response.body(gunzip(body));
+    }
+
+    private byte[] encode(Object value, boolean cbor, FieldSelection fields) {
+        byte[] bytes;
+        try {
+            if (fields.isAll()) {
+                bytes = (cbor ? cborMapper : jsonMapper).writeValueAsBytes(value);
+            } else {
+                bytes = (cbor ? sparseCborMapper : sparseJsonMapper).writer(fields.filterProvider()).writeValueAsBytes(value);
+            }
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return gzipMinSize > 0 && bytes.length >= gzipMinSize ? gzip(bytes) : bytes;
+    }
+
+    /**
+     * The served type with the highest quality among the acceptable ones: CBOR, or JSON, which a wildcard
+     * also matches. On a tie the type listed first wins; without an {@code Accept} header JSON is served.
+     */
+    private static MediaType negotiate(HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            throw new HttpMediaTypeNotAcceptableException("Could not parse 'Accept' header [" + accept + "]: " + ex.getMessage());
+        }
+        MediaType chosen = null;
+        double bestQuality = 0;
+        for (var mediaType : acceptable) {
+            var served = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType) ? MediaType.APPLICATION_CBOR
+                    : mediaType.includes(MediaType.APPLICATION_JSON) ? MediaType.APPLICATION_JSON : null;
+            // A quality of 0 marks the type as not acceptable
+            if (served != null && mediaType.getQualityValue() > bestQuality) {
+                bestQuality = mediaType.getQualityValue();
+                chosen = served;
+            }
+        }
+        if (chosen == null) {
+            throw new HttpMediaTypeNotAcceptableException(SUPPORTED_TYPES);
+        }
+        return chosen;
+    }
+
+    private static Object variantKey(Object key, String variant) {
+        if (key instanceof RouteCacheKey routeKey) {
+            // Keep the structured key so the entry is still indexed and evicted with its route search
+            return routeKey.plusVariant(variant);
+        }
+        return variant + ":" + key;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static boolean isGzip(byte[] body) {
+        return body.length >= 2 && body[0] == GZIP_MAGIC[0] && body[1] == GZIP_MAGIC[1];
+    }
+
+    private static byte[] gzip(byte[] json) {
+        var out = new ByteArrayOutputStream(json.length / 4);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class SecurityConfig {
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/routes/**").hasAnyRole("ADMIN", "AGENCY")
+                .requestMatchers(HttpMethod.POST, "/api/routes/counts").hasAnyRole("ADMIN", "AGENCY")
                 .requestMatchers("/api/locations/**").hasRole("ADMIN")
                 .requestMatchers("/api/transportations/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -129,7 +130,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "X-Total-Count"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,35 @@
+package com.aviation.controller;
+
+import com.aviation.config.ReplicaRoutingDataSource;
+import com.aviation.dto.DataSourceStatsDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+
+@RestController
+@RequestMapping("/api/datasources")
+@Tag(name = "Data Sources", description = "Database connection pool APIs")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class DataSourceController {
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get data source statistics", description = "Pool usage per primary and replica, replication lag and read routing counts (Admin only)")
+    public ResponseEntity<DataSourceStatsDTO> getStats() {
+        var routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.getStats() : ReplicaRoutingDataSource.singlePoolStats(dataSource));
+    }
+}
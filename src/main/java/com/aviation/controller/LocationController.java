@@ -1,10 +1,18 @@
 package com.aviation.controller;
 
+import com.aviation.config.ResponseBodyCache;
 import com.aviation.dto.LocationDTO;
+import com.aviation.dto.NearbyLocationDTO;
 import com.aviation.service.LocationService;
+import com.aviation.service.LocationSpatialIndex;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,6 +21,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,12 +34,16 @@ import java.util.List;
 public class LocationController {
     
     private final LocationService locationService;
+    private final ResponseBodyCache responseBodyCache;
+    private final LocationSpatialIndex locationSpatialIndex;
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all locations", description = "Retrieve all locations (Admin only)")
-    public ResponseEntity<List<LocationDTO>> getAllLocations() {
-        return ResponseEntity.ok(locationService.getAllLocations());
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = LocationDTO.class))))
+    public ResponseEntity<byte[]> getAllLocations(HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        return responseBodyCache.respond("locationResponses", "all", request, locationService::getAllLocations);
     }
 
     @GetMapping("/paged")
@@ -43,11 +56,39 @@ public class LocationController {
         return ResponseEntity.ok(locationService.getAllLocations(pageable));
     }
     
+    @GetMapping("/nearby")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Find locations near a point",
+            description = "Locations closest to the given coordinates, nearest first, optionally within a radius "
+                    + "and restricted to airports (Admin only)")
+    public ResponseEntity<List<NearbyLocationDTO>> findNearbyLocations(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "false") boolean airportsOnly) {
+        return ResponseEntity.ok(locationSpatialIndex.nearest(latitude, longitude, limit, radiusKm, airportsOnly));
+    }
+
+    @GetMapping("/{id}/nearby-airports")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Suggest airports for a location",
+            description = "Airports closest to the location, candidates for its before- and after-flight "
+                    + "transfers (Admin only)")
+    public ResponseEntity<List<NearbyLocationDTO>> suggestNearbyAirports(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) Double radiusKm) {
+        return ResponseEntity.ok(locationSpatialIndex.nearestAirports(id, limit, radiusKm));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get location by ID", description = "Retrieve a specific location (Admin only)")
-    public ResponseEntity<LocationDTO> getLocationById(@PathVariable Long id) {
-        return ResponseEntity.ok(locationService.getLocationById(id));
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = LocationDTO.class)))
+    public ResponseEntity<byte[]> getLocationById(@PathVariable Long id, HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        return responseBodyCache.respond("locationResponses", id, request, () -> locationService.getLocationById(id));
     }
     
     @PostMapping
@@ -1,23 +1,51 @@
 package com.aviation.controller;
 
+import com.aviation.config.FieldSelection;
+import com.aviation.config.ResponseBodyCache;
+import com.aviation.dto.CompactRoutesDTO;
+import com.aviation.dto.DatedRoutesDTO;
 import com.aviation.dto.LocationDTO;
+import com.aviation.dto.ReachableDestinationDTO;
+import com.aviation.dto.RouteCountDTO;
+import com.aviation.dto.RouteCountRequest;
 import com.aviation.dto.RouteDTO;
+import com.aviation.dto.RouteIndexStatsDTO;
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+import com.aviation.service.LocationSearchIndex;
 import com.aviation.service.LocationService;
+import com.aviation.service.MaterializedRouteIndex;
+import com.aviation.service.RouteCacheKey;
+import com.aviation.service.RouteConstraints;
+import com.aviation.service.RouteCountService;
+import com.aviation.service.RouteDateRangeService;
+import com.aviation.service.RouteRanking;
 import com.aviation.service.RouteService;
+import com.aviation.service.TransportationValidityIndex;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/routes")
@@ -26,26 +54,176 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RouteController {
     
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    
     private final RouteService routeService;
+    private final RouteDateRangeService routeDateRangeService;
+    private final RouteCountService routeCountService;
     private final LocationService locationService;
+    private final LocationSearchIndex locationSearchIndex;
+    private final MaterializedRouteIndex materializedRouteIndex;
+    private final TransportationValidityIndex validityIndex;
+    private final ResponseBodyCache responseBodyCache;
     
     @GetMapping("/locations")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
     @Operation(summary = "Get locations for route search", description = "Get all locations available for route search dropdowns")
-    public ResponseEntity<List<LocationDTO>> getLocationsForRouteSearch() {
-        List<LocationDTO> locations = locationService.getAllLocations();
-        return ResponseEntity.ok(locations);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = LocationDTO.class))))
+    public ResponseEntity<byte[]> getLocationsForRouteSearch(HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        return responseBodyCache.respond("locationResponses", "all", request, locationService::getAllLocations);
+    }
+    
+    @GetMapping("/locations/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Search locations", description = "Typeahead over location codes, names and cities; "
+            + "case and accent insensitive, every word of the query must prefix a word of the location")
+    public ResponseEntity<List<LocationDTO>> searchLocations(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(locationSearchIndex.search(q, limit));
     }
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
-    @Operation(summary = "Find routes", description = "Find all valid routes between two locations on a specific date")
-    public ResponseEntity<List<RouteDTO>> findRoutes(
+    @Operation(summary = "Find routes", description = "Find all valid routes between two locations on a specific date. "
+            + "With compact=true, locations are returned once in a dictionary and segments refer to them by id. "
+            + "fields takes a comma-separated list of route properties to return, e.g. segments.type,segments.to.locationCode (not applied to the compact shape). "
+            + "types, maxSegments and segmentTypes restrict the transportation types, the number of segments and the segment types of the returned routes. "
+            + "limit returns only the best routes, ranked by fewest segments and then by groundPreference (ground modes, most preferred first); "
+            + "includeTotal adds the number of matching routes in the X-Total-Count header")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = RouteDTO.class))))
+    public ResponseEntity<byte[]> findRoutes(
             @RequestParam Long originId,
             @RequestParam Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean compact,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) List<TransportationType> types,
+            @RequestParam(required = false) Integer maxSegments,
+            @RequestParam(required = false) List<SegmentType> segmentTypes,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<TransportationType> groundPreference,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        
+        var constraints = RouteConstraints.of(types, maxSegments, segmentTypes);
+        var key = RouteCacheKey.route(originId, destinationId, validityIndex.scheduleDate(date))
+                .withVariant(constraints.variant());
+        Supplier<List<RouteDTO>> search = () -> routeService.findRoutes(originId, destinationId, date, constraints);
+        if (limit != null || groundPreference != null) {
+            var ranking = RouteRanking.of(groundPreference);
+            int top = limit != null ? limit : Integer.MAX_VALUE;
+            key = key.plusVariant(ranking.variant(top));
+            search = () -> routeService.findTopRoutes(originId, destinationId, date, constraints, ranking, top);
+        }
+        
+        var routes = search;
+        var response = compact
+                ? responseBodyCache.respond("routeResponses", key.plusVariant("compact"), request,
+                        () -> CompactRoutesDTO.from(routes.get()))
+                : responseBodyCache.respond("routeResponses", key, request, FieldSelection.parse(fields), routes);
+        if (!includeTotal) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(TOTAL_COUNT_HEADER, String.valueOf(routeService.countRoutes(originId, destinationId, date, constraints)))
+                .body(response.getBody());
+    }
+    
+    @GetMapping("/flexible")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Find routes over a date range", description = "Find the routes between two locations on every date from 'from' to 'to' inclusive. "
+            + "Each distinct weekday of each season is searched once and shared by all dates falling on it. "
+            + "Accepts the same fields, types, maxSegments and segmentTypes parameters as the single-date search")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = DatedRoutesDTO.class))))
+    public ResponseEntity<byte[]> findRoutesInRange(
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) List<TransportationType> types,
+            @RequestParam(required = false) Integer maxSegments,
+            @RequestParam(required = false) List<SegmentType> segmentTypes,
+            HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        
+        var constraints = RouteConstraints.of(types, maxSegments, segmentTypes);
+        // The per-weekday searches are cached; the assembled range is only rendered
+        return responseBodyCache.respond(null, null, request, FieldSelection.parse(fields).within("routes"),
+                () -> routeDateRangeService.findRoutes(originId, destinationId, from, to, constraints));
+    }
+    
+    @PostMapping("/counts")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Count routes for many pairs", description = "Count the routes, and whether any exists, for a batch of origin/destination pairs on one date, "
+            + "without building the routes. Accepts the same types, maxSegments and segmentTypes parameters as the route search")
+    public ResponseEntity<List<RouteCountDTO>> countRoutes(
+            @Valid @RequestBody RouteCountRequest countRequest,
+            @RequestParam(required = false) List<TransportationType> types,
+            @RequestParam(required = false) Integer maxSegments,
+            @RequestParam(required = false) List<SegmentType> segmentTypes) {
+        
+        var constraints = RouteConstraints.of(types, maxSegments, segmentTypes);
+        return ResponseEntity.ok(routeCountService.countRoutes(countRequest, constraints));
+    }
+    
+    @GetMapping("/reachable")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Find reachable destinations", description = "Find every destination reachable from an origin on a specific date, with per-destination route counts and optionally the routes themselves")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = ReachableDestinationDTO.class))))
+    public ResponseEntity<byte[]> findReachableDestinations(
+            @RequestParam Long originId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean includeRoutes,
+            HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        
+        var key = RouteCacheKey.reachable(originId, validityIndex.scheduleDate(date), includeRoutes);
+        return responseBodyCache.respond("routeResponses", key, request,
+                () -> routeService.findReachableDestinations(originId, date, includeRoutes));
+    }
+    
+    @GetMapping("/reachable/exists")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Check route existence", description = "Check whether at least one route exists between two locations on a specific date, without building routes")
+    public ResponseEntity<Boolean> hasRoutes(
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        
+        return ResponseEntity.ok(routeService.hasRoutes(originId, destinationId, date));
+    }
+    
+    @GetMapping("/reachable/count")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(summary = "Count reachable destinations", description = "Count the distinct destinations reachable from an origin on a specific date, without building routes")
+    public ResponseEntity<Integer> countReachableDestinations(
+            @RequestParam Long originId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         
-        List<RouteDTO> routes = routeService.findRoutes(originId, destinationId, date);
-        return ResponseEntity.ok(routes);
+        return ResponseEntity.ok(routeService.countReachableDestinations(originId, date));
+    }
+    
+    @GetMapping("/index/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get route index statistics", description = "Size, estimated memory use and rebuild times of the materialized route index (Admin only)")
+    public ResponseEntity<RouteIndexStatsDTO> getIndexStats() {
+        return ResponseEntity.ok(materializedRouteIndex.getStats());
+    }
+    
+    @PostMapping("/index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild route index", description = "Recompute the materialized route index from scratch (Admin only)")
+    public ResponseEntity<RouteIndexStatsDTO> rebuildIndex() {
+        if (!materializedRouteIndex.isEnabled()) {
+            throw new RuntimeException("Materialized route index is disabled");
+        }
+        materializedRouteIndex.rebuild();
+        return ResponseEntity.ok(materializedRouteIndex.getStats());
     }
 }
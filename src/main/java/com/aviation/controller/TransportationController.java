@@ -1,22 +1,27 @@
 package com.aviation.controller;
 
+import com.aviation.config.FieldSelection;
+import com.aviation.config.ResponseBodyCache;
 import com.aviation.dto.TransportationDTO;
 import com.aviation.service.TransportationService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/transportations")
 @Tag(name = "Transportations", description = "Transportation management APIs")
@@ -25,22 +30,34 @@ import java.util.List;
 public class TransportationController {
     
     private final TransportationService transportationService;
+    private final ResponseBodyCache responseBodyCache;
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all transportations", description = "Retrieve all transportations (Admin only)")
-    public ResponseEntity<List<TransportationDTO>> getAllTransportations() {
-        return ResponseEntity.ok(transportationService.getAllTransportations());
+    @Operation(summary = "Get all transportations", description = "Retrieve all transportations (Admin only). "
+            + "fields takes a comma-separated list of properties to return, e.g. id,transportationType")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = TransportationDTO.class))))
+    public ResponseEntity<byte[]> getAllTransportations(
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        return responseBodyCache.respond("transportationResponses", "all", request, FieldSelection.parse(fields),
+                transportationService::getAllTransportations);
     }
 
     @GetMapping("/paged")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get transportations with pagination", description = "Retrieve transportations with pagination support (Admin only)")
-    public ResponseEntity<Page<TransportationDTO>> getTransportationsPaged(
+    @Operation(summary = "Get transportations with pagination", description = "Retrieve transportations with pagination support (Admin only). "
+            + "fields selects the properties of each transportation in the page content")
+    public ResponseEntity<byte[]> getTransportationsPaged(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(transportationService.getAllTransportations(pageable));
+        // Pages are not cached; the selection only trims what is written
+        return responseBodyCache.respond(null, null, request, FieldSelection.parse(fields).within("content"),
+                () -> transportationService.getAllTransportations(pageable));
     }
     
     @GetMapping("/{id}")
@@ -0,0 +1,48 @@
+package com.aviation.dto;
+
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Normalised form of a route search result: every location appears once in {@code locations},
+ * and segments refer to them by id instead of embedding full {@link LocationDTO}s.
+ */
+public record CompactRoutesDTO(
+        Map<Long, LocationDTO> locations,
+        List<CompactRouteDTO> routes
+) implements Serializable {
+
+    public record CompactRouteDTO(List<CompactSegmentDTO> segments) implements Serializable {
+    }
+
+    public record CompactSegmentDTO(
+            Long transportationId,
+            TransportationType type,
+            Long fromId,
+            Long toId,
+            SegmentType segmentType
+    ) implements Serializable {
+    }
+
+    public static CompactRoutesDTO from(List<RouteDTO> routes) {
+        var locations = new TreeMap<Long, LocationDTO>();
+        var compactRoutes = new ArrayList<CompactRouteDTO>(routes.size());
+        for (var route : routes) {
+            var segments = new ArrayList<CompactSegmentDTO>(route.getSegments().size());
+            for (var segment : route.getSegments()) {
+                locations.putIfAbsent(segment.from().getId(), segment.from());
+                locations.putIfAbsent(segment.to().getId(), segment.to());
+                segments.add(new CompactSegmentDTO(segment.transportationId(), segment.type(),
+                        segment.from().getId(), segment.to().getId(), segment.segmentType()));
+            }
+            compactRoutes.add(new CompactRouteDTO(segments));
+        }
+        return new CompactRoutesDTO(locations, compactRoutes);
+    }
+}
@@ -0,0 +1,29 @@
+package com.aviation.dto;
+
+import java.util.List;
+
+/**
+ * Connection pools behind the application and how connections are routed between them.
+ *
+ * @param routingEnabled   whether read-only transactions are routed to replicas
+ * @param primaryFallbacks read-only transactions sent to the primary because no replica qualified
+ */
+public record DataSourceStatsDTO(boolean routingEnabled, long primaryFallbacks, List<Target> targets) {
+
+    /**
+     * @param routedConnections    connections handed out from this target since startup
+     * @param replicationLagMillis how far a replica trailed the primary at the last heartbeat, {@code null} for
+     *                             the primary or while unknown
+     * @param caughtUp             whether a replica has replayed every write committed through this instance
+     */
+    public record Target(String name,
+                         String role,
+                         int activeConnections,
+                         int idleConnections,
+                         int totalConnections,
+                         int threadsAwaitingConnection,
+                         long routedConnections,
+                         Long replicationLagMillis,
+                         Boolean caughtUp) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.aviation.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Routes available on one calendar date of a flexible-date search.
+ */
+public record DatedRoutesDTO(LocalDate date, List<RouteDTO> routes) implements Serializable {
+}
@@ -1,6 +1,8 @@
 package com.aviation.dto;
 
 import com.aviation.entity.Location;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -29,6 +31,18 @@ public class LocationDTO implements Serializable {
     @Size(min = 3, message = "Location code must be at least 3 characters")
     private String locationCode;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    public LocationDTO(Long id, String name, String country, String city, String locationCode) {
+        this(id, name, country, city, locationCode, null, null);
+    }
+
     public static LocationDTO from(Location location) {
         LocationDTO dto = new LocationDTO();
         dto.setId(location.getId());
@@ -36,6 +50,8 @@ public class LocationDTO implements Serializable {
         dto.setCountry(location.getCountry());
         dto.setCity(location.getCity());
         dto.setLocationCode(location.getLocationCode());
+        dto.setLatitude(location.getLatitude());
+        dto.setLongitude(location.getLongitude());
         return dto;
     }
 }
@@ -0,0 +1,19 @@
+package com.aviation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyLocationDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private LocationDTO location;
+
+    // Great-circle distance from the query point, rounded to 0.1 km
+    private double distanceKm;
+}
@@ -0,0 +1,24 @@
+package com.aviation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReachableDestinationDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private LocationDTO destination;
+
+    private int routeCount;
+
+    // Only populated when the caller asks for the routes themselves
+    private List<RouteDTO> routes;
+}
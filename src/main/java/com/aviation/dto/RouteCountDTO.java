@@ -0,0 +1,9 @@
+package com.aviation.dto;
+
+import java.io.Serializable;
+
+/**
+ * Number of routes between two locations on a date, and whether there is any.
+ */
+public record RouteCountDTO(Long originId, Long destinationId, int routeCount, boolean available) implements Serializable {
+}
@@ -0,0 +1,28 @@
+package com.aviation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Batch of origin/destination pairs whose route counts are wanted for one date, e.g. for availability badges.
+ */
+public record RouteCountRequest(
+        @NotNull(message = "Date is required")
+        LocalDate date,
+
+        @NotEmpty(message = "At least one pair is required")
+        @Size(max = 500, message = "At most 500 pairs per request")
+        List<@Valid Pair> pairs
+) {
+
+    public record Pair(
+            @NotNull(message = "Origin is required") Long originId,
+            @NotNull(message = "Destination is required") Long destinationId
+    ) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.aviation.dto;
+
+import java.time.Instant;
+
+public record RouteIndexStatsDTO(
+        boolean enabled,
+        boolean ready,
+        int pairs,
+        long routes,
+        long segments,
+        long estimatedBytes,
+        long lastFullRebuildMillis,
+        long lastIncrementalUpdateMicros,
+        int lastIncrementalPairs,
+        Instant builtAt) {
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
@@ -28,6 +29,10 @@ public class TransportationDTO implements Serializable {
     
     @NotEmpty(message = "Operating days are required")
     private List<Integer> operatingDays;
+
+    // Optional seasonal validity, both ends inclusive
+    private LocalDate validFrom;
+    private LocalDate validTo;
     
     // For response
     private LocationDTO originLocation;
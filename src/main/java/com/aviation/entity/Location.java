@@ -2,6 +2,8 @@ package com.aviation.entity;
 
 import com.aviation.dto.LocationDTO;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -42,12 +44,30 @@ public class Location {
     @Column(nullable = false, unique = true, name = "location_code")
     private String locationCode;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    public Location(Long id, String name, String country, String city, String locationCode) {
+        this(id, name, country, city, locationCode, null, null);
+    }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     public static Location toEntity(LocationDTO dto) {
         Location location = new Location();
         location.setName(dto.getName());
         location.setCountry(dto.getCountry());
         location.setCity(dto.getCity());
         location.setLocationCode(dto.getLocationCode());
+        location.setLatitude(dto.getLatitude());
+        location.setLongitude(dto.getLongitude());
         return location;
     }
 
@@ -0,0 +1,29 @@
+package com.aviation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The heartbeat row of one application instance, used by {@code ReplicaLagMonitor} to measure replica lag.
+ * Mapped so the table is created with the rest of the schema; the monitor itself reads and writes it over JDBC.
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+
+    @Column(name = "beat_at", nullable = false)
+    private LocalDateTime beatAt;
+}
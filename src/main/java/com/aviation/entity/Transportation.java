@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Entity
@@ -49,6 +50,22 @@ public class Transportation {
     @Column(name = "day_of_week")
     private List<Integer> operatingDays;
 
+    // Seasonal validity, both ends inclusive; null means open-ended
+    @Column(name = "valid_from")
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    public Transportation(Long id, Location originLocation, Location destinationLocation,
+                          TransportationType transportationType, List<Integer> operatingDays) {
+        this(id, originLocation, destinationLocation, transportationType, operatingDays, null, null);
+    }
+
+    public boolean isSeasonal() {
+        return validFrom != null || validTo != null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
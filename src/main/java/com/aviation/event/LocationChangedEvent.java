@@ -0,0 +1,13 @@
+package com.aviation.event;
+
+/**
+ * Published by {@code LocationService} whenever a location is created, updated or deleted.
+ */
+public record LocationChangedEvent(Long locationId, ChangeType changeType) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,65 @@
+package com.aviation.event;
+
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Published by {@code TransportationService} whenever a transportation is created, updated or deleted.
+ * Carries the leg as it was before and after the change so listeners can scope their work
+ * to the days and locations the change can actually affect.
+ *
+ * @param previous the leg before the change, {@code null} on create
+ * @param current  the leg after the change, {@code null} on delete
+ */
+public record TransportationChangedEvent(LegState previous, LegState current) {
+
+    /**
+     * Days of week (1 = Monday, 7 = Sunday) on which either version of the leg operates.
+     */
+    public Set<Integer> affectedDays() {
+        var days = new TreeSet<Integer>();
+        if (previous != null) {
+            days.addAll(previous.operatingDays());
+        }
+        if (current != null) {
+            days.addAll(current.operatingDays());
+        }
+        return days;
+    }
+
+    public record LegState(
+            Long id,
+            TransportationType type,
+            Long originId,
+            Long destinationId,
+            Set<Integer> operatingDays,
+            LocalDate validFrom,
+            LocalDate validTo
+    ) {
+
+        public LegState(Long id, TransportationType type, Long originId, Long destinationId, Set<Integer> operatingDays) {
+            this(id, type, originId, destinationId, operatingDays, null, null);
+        }
+
+        public boolean isSeasonal() {
+            return validFrom != null || validTo != null;
+        }
+
+        public static LegState from(Transportation transportation) {
+            return new LegState(
+                    transportation.getId(),
+                    transportation.getTransportationType(),
+                    transportation.getOriginLocation().getId(),
+                    transportation.getDestinationLocation().getId(),
+                    transportation.getOperatingDays() != null
+                            ? Set.copyOf(transportation.getOperatingDays()) : Set.of(),
+                    transportation.getValidFrom(),
+                    transportation.getValidTo()
+            );
+        }
+    }
+}
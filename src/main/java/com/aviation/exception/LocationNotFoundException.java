@@ -0,0 +1,13 @@
+package com.aviation.exception;
+
+/**
+ * Thrown when a search refers to a location id that does not exist.
+ * Handled like any other {@link RuntimeException}; the dedicated type lets the route cache
+ * remember the outcome (see {@code NegativeResultCache}).
+ */
+public class LocationNotFoundException extends RuntimeException {
+
+    public LocationNotFoundException(String message) {
+        super(message);
+    }
+}
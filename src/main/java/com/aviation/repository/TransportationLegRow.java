@@ -0,0 +1,11 @@
+package com.aviation.repository;
+
+import com.aviation.entity.TransportationType;
+
+/**
+ * Flat projection of a transportation for route searches: ids and type only, never a managed entity,
+ * so loading a day's network creates no persistence context entries or dirty-checking snapshots.
+ * Location details are resolved separately, once per location.
+ */
+public record TransportationLegRow(Long transportationId, TransportationType type, Long originId, Long destinationId) {
+}
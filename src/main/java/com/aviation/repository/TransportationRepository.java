@@ -1,16 +1,24 @@
 package com.aviation.repository;
 
 import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransportationRepository extends JpaRepository<Transportation, Long> {
+
+    // Rows per JDBC round-trip when reading a day's legs
+    String LEG_FETCH_SIZE = "512";
     
     @Query("SELECT DISTINCT t FROM Transportation t LEFT JOIN FETCH t.operatingDays")
     List<Transportation> findAllWithOperatingDays();
@@ -19,28 +27,105 @@ public interface TransportationRepository extends JpaRepository<Transportation,
     Optional<Transportation> findByIdWithOperatingDays(@Param("id") Long id);
 
     /**
-     * Single optimized query that fetches all transportations relevant for route calculation:
-     * - All FLIGHT transportations operating on the given day
-     * - All non-FLIGHT transportations FROM the origin operating on the given day
-     * - All non-FLIGHT transportations TO the destination operating on the given day
-     *
-     * Replaces 3 separate queries (findAvailableFlights, findAvailableNonFlightsFromOrigin,
-     * findAvailableNonFlightsToDestination) with a single DB round-trip.
+     * The complete network operating on the given day as flat rows, used by one-to-many searches and
+     * the route indexes that need every flight and every ground transfer in a single round-trip.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
+    @Query("""
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
+            WHERE :dayOfWeek MEMBER OF t.operatingDays
+            """)
+    List<TransportationLegRow> findLegsOperatingOn(@Param("dayOfWeek") int dayOfWeek);
+
+    /**
+     * The day's network restricted to the given transportation types, for searches that exclude some.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
     @Query("""
-            SELECT DISTINCT t FROM Transportation t
-            LEFT JOIN FETCH t.operatingDays
-            LEFT JOIN FETCH t.originLocation
-            LEFT JOIN FETCH t.destinationLocation
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
             WHERE :dayOfWeek MEMBER OF t.operatingDays
-            AND (
-                t.transportationType = 'FLIGHT'
-                OR (t.transportationType <> 'FLIGHT' AND t.originLocation.id = :originId)
-                OR (t.transportationType <> 'FLIGHT' AND t.destinationLocation.id = :destinationId)
-            )
-            """)
-    List<Transportation> findAllRelevantForRoute(@Param("originId") Long originId,
-                                                  @Param("destinationId") Long destinationId,
-                                                  @Param("dayOfWeek") int dayOfWeek);
+            AND t.transportationType IN :types
+            """)
+    List<TransportationLegRow> findLegsOfTypesOperatingOn(@Param("types") Collection<TransportationType> types,
+                                                          @Param("dayOfWeek") int dayOfWeek);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
+    @Query("""
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
+            WHERE :dayOfWeek MEMBER OF t.operatingDays
+            AND t.transportationType = 'FLIGHT'
+            """)
+    List<TransportationLegRow> findFlightLegsOperatingOn(@Param("dayOfWeek") int dayOfWeek);
+
+    /**
+     * Ground transfers operating on the given day that depart any of the origins or arrive at any of
+     * the destinations, so a whole batch of route searches needs a single round-trip. Both collections
+     * must be non-empty; a batch asking for one side only uses {@link #findGroundLegsDepartingOperatingOn}
+     * or {@link #findGroundLegsArrivingOperatingOn}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
+    @Query("""
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
+            WHERE :dayOfWeek MEMBER OF t.operatingDays
+            AND t.transportationType <> 'FLIGHT'
+            AND (t.originLocation.id IN :originIds OR t.destinationLocation.id IN :destinationIds)
+            """)
+    List<TransportationLegRow> findGroundLegsTouchingOperatingOn(@Param("originIds") Collection<Long> originIds,
+                                                                 @Param("destinationIds") Collection<Long> destinationIds,
+                                                                 @Param("dayOfWeek") int dayOfWeek);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
+    @Query("""
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
+            WHERE :dayOfWeek MEMBER OF t.operatingDays
+            AND t.transportationType <> 'FLIGHT'
+            AND t.originLocation.id IN :originIds
+            """)
+    List<TransportationLegRow> findGroundLegsDepartingOperatingOn(@Param("originIds") Collection<Long> originIds,
+                                                                  @Param("dayOfWeek") int dayOfWeek);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LEG_FETCH_SIZE))
+    @Query("""
+            SELECT new com.aviation.repository.TransportationLegRow(
+                t.id, t.transportationType, t.originLocation.id, t.destinationLocation.id)
+            FROM Transportation t
+            WHERE :dayOfWeek MEMBER OF t.operatingDays
+            AND t.transportationType <> 'FLIGHT'
+            AND t.destinationLocation.id IN :destinationIds
+            """)
+    List<TransportationLegRow> findGroundLegsArrivingOperatingOn(@Param("destinationIds") Collection<Long> destinationIds,
+                                                                 @Param("dayOfWeek") int dayOfWeek);
+
+    /**
+     * Validity ranges of every transportation that is not valid all year round.
+     */
+    @Query("""
+            SELECT new com.aviation.repository.TransportationValidity(t.id, t.validFrom, t.validTo)
+            FROM Transportation t
+            WHERE t.validFrom IS NOT NULL OR t.validTo IS NOT NULL
+            """)
+    List<TransportationValidity> findSeasonalValidities();
+
+    @Query("""
+            SELECT DISTINCT t.originLocation.id FROM Transportation t
+            WHERE t.transportationType <> 'FLIGHT' AND t.destinationLocation.id = :locationId
+            """)
+    List<Long> findGroundOriginIdsInto(@Param("locationId") Long locationId);
+
+    @Query("""
+            SELECT DISTINCT t.destinationLocation.id FROM Transportation t
+            WHERE t.transportationType <> 'FLIGHT' AND t.originLocation.id = :locationId
+            """)
+    List<Long> findGroundDestinationIdsFrom(@Param("locationId") Long locationId);
 
 }
@@ -0,0 +1,9 @@
+package com.aviation.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Seasonal validity of a single transportation, both ends inclusive and {@code null} when open-ended.
+ */
+public record TransportationValidity(Long transportationId, LocalDate validFrom, LocalDate validTo) {
+}
@@ -0,0 +1,165 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.Location;
+import com.aviation.event.LocationChangedEvent;
+import com.aviation.exception.LocationNotFoundException;
+import com.aviation.repository.LocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of every location, keyed by id and by code, answering the existence checks and
+ * location details that route searches and transportation writes used to fetch one row at a time.
+ *
+ * <p>Locations are few and change rarely, so the whole table is loaded once at startup (or on first use,
+ * whichever comes first). Every write goes through {@link LocationService}, which publishes a
+ * {@link LocationChangedEvent}; the registry re-reads just that row after the commit, so it stays current
+ * without ever being rebuilt. Route legs are read as flat rows and take their location details from here,
+ * so each location is materialised once and shared by every leg, tier and index that touches it.
+ *
+ * <p>Each change also advances the {@value #GENERATION} {@link CacheGenerations} counter, and a registry
+ * that sees a generation it did not load reloads the table, so changes made through other instances reach
+ * this one as well. Misses are answered from memory alone: an id no instance has announced is unknown, so
+ * junk ids never reach the database, and a location created elsewhere is found once its change arrives.
+ * {@link LocationSearchIndex} and {@link LocationSpatialIndex} are derived from the registry and follow the
+ * same generation.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationRegistry {
+
+    static final String GENERATION = "locationRegistry";
+
+    private static final Logger log = LoggerFactory.getLogger(LocationRegistry.class);
+
+    private final LocationRepository locationRepository;
+    private final CacheGenerations cacheGenerations;
+
+    // Null until loaded, and again when a local change raced with one made elsewhere
+    private volatile Snapshot snapshot;
+
+    public Optional<LocationDTO> findById(Long locationId) {
+        var locations = current();
+        return locationId != null ? Optional.ofNullable(locations.byId().get(locationId)) : Optional.empty();
+    }
+
+    public Optional<LocationDTO> findByCode(String locationCode) {
+        var locations = current();
+        return locationCode != null ? Optional.ofNullable(locations.byCode().get(locationCode)) : Optional.empty();
+    }
+
+    /**
+     * The location with the given id, which is known to exist, e.g. because a transportation references it.
+     *
+     * @throws LocationNotFoundException if the location does not exist
+     */
+    public LocationDTO require(Long locationId) {
+        return findById(locationId)
+                .orElseThrow(() -> new LocationNotFoundException("Location not found with id: " + locationId));
+    }
+
+    public boolean contains(Long locationId) {
+        return locationId != null && current().byId().containsKey(locationId);
+    }
+
+    public int size() {
+        return current().byId().size();
+    }
+
+    /**
+     * Every location, with the generation it was read at. Indexes derived from the registry rebuild when
+     * the generation moves on, which happens after every change made through any instance.
+     */
+    public Locations locations() {
+        var locations = current();
+        return new Locations(locations.generation(), Collections.unmodifiableCollection(locations.byId().values()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        current();
+    }
+
+    // Ahead of the listeners that reload route legs, so they pick up the new details
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        synchronized (this) {
+            var locations = snapshot;
+            if (locations == null) {
+                return;
+            }
+            remove(locations, event.locationId());
+            if (event.changeType() != LocationChangedEvent.ChangeType.DELETED) {
+                locationRepository.findById(event.locationId()).ifPresent(location -> add(locations, location));
+            }
+            long generation = cacheGenerations.advance(GENERATION);
+            // Up to date unless a change made elsewhere advanced the generation too; then reload on next use
+            snapshot = generation == locations.generation() + 1 ? locations.withGeneration(generation) : null;
+        }
+    }
+
+    private Snapshot current() {
+        var locations = snapshot;
+        long generation = cacheGenerations.current(GENERATION);
+        if (locations != null && locations.generation() == generation) {
+            return locations;
+        }
+        synchronized (this) {
+            locations = snapshot;
+            if (locations == null || locations.generation() != generation) {
+                locations = load(generation);
+                snapshot = locations;
+            }
+            return locations;
+        }
+    }
+
+    private Snapshot load(long generation) {
+        long start = System.nanoTime();
+        var locations = new Snapshot(generation, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        locationRepository.findAll().forEach(location -> add(locations, location));
+        log.info("Location registry loaded: {} locations in {} ms",
+                locations.byId().size(), (System.nanoTime() - start) / 1_000_000);
+        return locations;
+    }
+
+    private static LocationDTO add(Snapshot locations, Location location) {
+        var dto = LocationDTO.from(location);
+        locations.byId().put(location.getId(), dto);
+        locations.byCode().put(location.getLocationCode(), dto);
+        return dto;
+    }
+
+    private static void remove(Snapshot locations, Long locationId) {
+        var dto = locations.byId().remove(locationId);
+        if (dto != null) {
+            locations.byCode().remove(dto.getLocationCode(), dto);
+        }
+    }
+
+    public record Locations(long generation, Collection<LocationDTO> all) {
+    }
+
+    private record Snapshot(long generation, Map<Long, LocationDTO> byId, Map<String, LocationDTO> byCode) {
+
+        Snapshot withGeneration(long newGeneration) {
+            return new Snapshot(newGeneration, byId, byCode);
+        }
+    }
+}
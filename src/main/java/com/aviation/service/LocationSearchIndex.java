@@ -0,0 +1,237 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead index over location codes, names and cities.
+ *
+ * <p>Every field is normalised (lower case, diacritics stripped, letters such as {@code ı}, {@code ß},
+ * {@code ø} and {@code ł} folded to their plain spelling) and split into tokens; a sorted map from token to
+ * location ids answers prefix lookups with a single range scan. A query matches a location when each of its
+ * tokens is a prefix of one of the location's tokens, so {@code "sao pa"} finds São Paulo and
+ * {@code "kadikoy"} finds Kadıköy. Results rank an exact code match first, then code prefixes in code order,
+ * then names starting with the query in name order. These ranked matches are walked in their own sorted maps
+ * of whole codes and names, in result order, so each stops after {@code limit} matches; ordinary token matches
+ * only fill the places left, and the candidate cap on very short prefixes only ever cuts those.
+ *
+ * <p>The index is built from {@link LocationRegistry} and rebuilt whenever the registry's generation moves on,
+ * so changes made through any instance are picked up; lookups never touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationSearchIndex.class);
+
+    public static final int MAX_LIMIT = 50;
+
+    // Bounds the work of very short prefixes; applies to ordinary token matches only, after the ranked ones
+    private static final int MAX_CANDIDATES = 2_000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Letters NFD does not decompose, spelled the way they are typed on a keyboard without them
+    private static final Map<Character, String> FOLDS = Map.of('ı', "i", 'ß', "ss", 'ø', "o", 'ł', "l");
+
+    private final LocationRegistry locationRegistry;
+
+    private volatile Index index;
+
+    /**
+     * Returns up to {@code limit} locations matching the query, best matches first.
+     */
+    public List<LocationDTO> search(String query, int limit) {
+        var tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        var index = current();
+        int cap = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        var normalizedQuery = String.join(" ", tokens);
+        var matches = new ArrayList<Entry>();
+        var seen = new HashSet<Long>();
+        // Exact codes and code prefixes, then name prefixes, each walked in result order
+        for (var ranked : List.of(index.idsByCode(), index.idsByName())) {
+            int found = 0;
+            bucket:
+            for (var ids : prefixRange(ranked, normalizedQuery)) {
+                for (var id : ids) {
+                    if (seen.add(id) && addIfMatching(index, id, tokens, matches) && ++found >= cap) {
+                        break bucket;
+                    }
+                }
+            }
+        }
+
+        // Then ordinary matches, seeded by the longest, usually most selective, token; the others filter them
+        if (matches.size() < cap) {
+            var seed = tokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            int candidates = 0;
+            scan:
+            for (var ids : prefixRange(index.idsByToken(), seed)) {
+                for (var id : ids) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    addIfMatching(index, id, tokens, matches);
+                    if (++candidates >= MAX_CANDIDATES) {
+                        break scan;
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.<Entry>comparingInt(entry -> entry.rank(normalizedQuery))
+                .thenComparing(entry -> entry.sortKey(normalizedQuery)));
+        var result = new ArrayList<LocationDTO>(Math.min(cap, matches.size()));
+        for (int i = 0; i < matches.size() && i < cap; i++) {
+            result.add(matches.get(i).location());
+        }
+        return result;
+    }
+
+    private static boolean addIfMatching(Index index, Long id, List<String> tokens, List<Entry> matches) {
+        var entry = index.entries().get(id);
+        if (entry != null && entry.matchesAll(tokens)) {
+            matches.add(entry);
+            return true;
+        }
+        return false;
+    }
+
+    private static Collection<List<Long>> prefixRange(NavigableMap<String, List<Long>> index, String prefix) {
+        return index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    private Index current() {
+        var locations = locationRegistry.locations();
+        var known = index;
+        if (known != null && known.generation() == locations.generation()) {
+            return known;
+        }
+        synchronized (this) {
+            known = index;
+            if (known == null || known.generation() != locations.generation()) {
+                known = build(locations);
+                index = known;
+            }
+            return known;
+        }
+    }
+
+    private static Index build(LocationRegistry.Locations locations) {
+        long start = System.nanoTime();
+        var index = new Index(locations.generation(), new TreeMap<>(), new TreeMap<>(), new TreeMap<>(), new HashMap<>());
+        for (var location : locations.all()) {
+            var tokens = new LinkedHashSet<String>();
+            tokens.addAll(tokenize(location.getLocationCode()));
+            tokens.addAll(tokenize(location.getName()));
+            tokens.addAll(tokenize(location.getCity()));
+            var entry = new Entry(location, normalize(location.getLocationCode()), normalize(location.getName()),
+                    List.copyOf(tokens));
+            index.entries().put(location.getId(), entry);
+            for (var token : tokens) {
+                addId(index.idsByToken(), token, location.getId());
+            }
+            addId(index.idsByCode(), entry.code(), location.getId());
+            addId(index.idsByName(), entry.name(), location.getId());
+        }
+        log.info("Location search index built: {} locations, {} tokens in {} ms",
+                index.entries().size(), index.idsByToken().size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    private static void addId(Map<String, List<Long>> index, String key, Long locationId) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(locationId);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        var stripped = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+        var folded = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char letter = stripped.charAt(i);
+            var fold = FOLDS.get(letter);
+            if (fold != null) {
+                folded.append(fold);
+            } else {
+                folded.append(letter);
+            }
+        }
+        return folded.toString();
+    }
+
+    static List<String> tokenize(String text) {
+        var tokens = new ArrayList<String>();
+        for (var token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * One build of the index, never modified once published.
+     */
+    private record Index(long generation, NavigableMap<String, List<Long>> idsByToken,
+                         NavigableMap<String, List<Long>> idsByCode, NavigableMap<String, List<Long>> idsByName,
+                         Map<Long, Entry> entries) {
+    }
+
+    private record Entry(LocationDTO location, String code, String name, List<String> tokens) {
+
+        boolean matchesAll(List<String> queryTokens) {
+            for (var queryToken : queryTokens) {
+                boolean found = false;
+                for (var token : tokens) {
+                    if (token.startsWith(queryToken)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int rank(String query) {
+            if (code.equals(query)) {
+                return 0;
+            }
+            if (code.startsWith(query)) {
+                return 1;
+            }
+            return name.startsWith(query) ? 2 : 3;
+        }
+
+        // Code matches in code order and everything else in name order, as the ranked maps are walked
+        String sortKey(String query) {
+            return rank(query) <= 1 ? code : name;
+        }
+    }
+}
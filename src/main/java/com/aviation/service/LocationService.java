@@ -2,11 +2,13 @@ package com.aviation.service;
 
 import com.aviation.dto.LocationDTO;
 import com.aviation.entity.Location;
+import com.aviation.event.LocationChangedEvent;
+import com.aviation.event.LocationChangedEvent.ChangeType;
 import com.aviation.repository.LocationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,7 @@ import java.util.stream.Collectors;
 public class LocationService {
     
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional(readOnly = true)
     @Cacheable(value = "locations", key = "'all'")
@@ -44,10 +47,7 @@ public class LocationService {
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "locations", allEntries = true)
-    })
+    @CacheEvict(value = {"locations", "locationResponses"}, allEntries = true)
     public LocationDTO createLocation(LocationDTO locationDTO) {
         if (locationRepository.existsByLocationCode(locationDTO.getLocationCode())) {
             throw new RuntimeException("Location with code " + locationDTO.getLocationCode() + " already exists");
@@ -55,14 +55,12 @@ public class LocationService {
         
         Location location = Location.toEntity(locationDTO);
         Location savedLocation = locationRepository.save(location);
+        eventPublisher.publishEvent(new LocationChangedEvent(savedLocation.getId(), ChangeType.CREATED));
         return LocationDTO.from(savedLocation);
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "locations", allEntries = true)
-    })
+    @CacheEvict(value = {"locations", "locationResponses"}, allEntries = true)
     public LocationDTO updateLocation(Long id, LocationDTO locationDTO) {
         Location location = locationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Location not found with id: " + id));
@@ -77,20 +75,21 @@ public class LocationService {
         location.setCountry(locationDTO.getCountry());
         location.setCity(locationDTO.getCity());
         location.setLocationCode(locationDTO.getLocationCode());
+        location.setLatitude(locationDTO.getLatitude());
+        location.setLongitude(locationDTO.getLongitude());
         
         Location updatedLocation = locationRepository.save(location);
+        eventPublisher.publishEvent(new LocationChangedEvent(id, ChangeType.UPDATED));
         return LocationDTO.from(updatedLocation);
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "locations", allEntries = true)
-    })
+    @CacheEvict(value = {"locations", "locationResponses"}, allEntries = true)
     public void deleteLocation(Long id) {
         if (!locationRepository.existsById(id)) {
             throw new RuntimeException("Location not found with id: " + id);
         }
         locationRepository.deleteById(id);
+        eventPublisher.publishEvent(new LocationChangedEvent(id, ChangeType.DELETED));
     }
 }
@@ -0,0 +1,291 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.dto.LocationDTO;
+import com.aviation.dto.NearbyLocationDTO;
+import com.aviation.exception.LocationNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory spatial index over location coordinates answering k-nearest and radius queries, e.g. the
+ * airports closest to a city centre when an admin sets up its before- and after-flight transfers.
+ *
+ * <p>Locations are bucketed into a fixed latitude/longitude grid of {@value #CELL_DEGREES}° cells. A radius
+ * query visits only the cells of the circle's exact bounding box (all longitudes when it covers a pole,
+ * wrapping across the antimeridian) and measures great-circle distances with the haversine formula.
+ * A k-nearest query widens its radius until it has {@code k} matches, so every location inside the final
+ * radius has been seen and the result is exact. When a box would touch more cells than there are
+ * located points, the points are scanned directly instead.
+ *
+ * <p>Like {@link LocationSearchIndex} the grid is built from {@link LocationRegistry} and rebuilt whenever the
+ * registry's generation moves on, so coordinates edited through any instance are picked up. Which locations
+ * are airports, i.e. served by at least one flight, is read from the cached flight tiers of
+ * {@link RouteLegCache} and read again once a transportation change on any instance has advanced one of the
+ * days' {@link RouteReachabilityIndex} generations. Locations without coordinates are not indexed.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationSpatialIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationSpatialIndex.class);
+
+    public static final int MAX_LIMIT = 50;
+
+    static final double CELL_DEGREES = 0.5;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double HALF_CIRCUMFERENCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    // First radius a k-nearest query tries; each miss quadruples it
+    private static final double INITIAL_RADIUS_KM = 50;
+
+    private final LocationRegistry locationRegistry;
+    private final RouteLegCache legCache;
+    private final CacheGenerations cacheGenerations;
+
+    private volatile Grid grid;
+    private volatile Airports airports;
+
+    /**
+     * Returns up to {@code limit} locations closest to the given point, nearest first.
+     *
+     * @param radiusKm     only consider locations within this distance, {@code null} for no bound
+     * @param airportsOnly only consider locations served by at least one flight
+     */
+    public List<NearbyLocationDTO> nearest(double latitude, double longitude, int limit, Double radiusKm,
+                                           boolean airportsOnly) {
+        validate(latitude, longitude);
+        validate(radiusKm);
+        var grid = current();
+        LongPredicate filter = airportsOnly ? airportIds()::contains : id -> true;
+        return nearest(grid, latitude, longitude, limit, radiusKm, filter);
+    }
+
+    /**
+     * Suggests airports near a location as candidates for its before- and after-flight transfers.
+     *
+     * @throws LocationNotFoundException if the location does not exist
+     * @throws IllegalArgumentException  if the location has no coordinates
+     */
+    public List<NearbyLocationDTO> nearestAirports(Long locationId, int limit, Double radiusKm) {
+        validate(radiusKm);
+        var grid = current();
+        var point = grid.points().get(locationId);
+        if (point == null) {
+            if (!locationRegistry.contains(locationId)) {
+                throw new LocationNotFoundException("Location not found with id: " + locationId);
+            }
+            throw new IllegalArgumentException("Location " + locationId + " has no coordinates");
+        }
+        var airportIds = airportIds();
+        long self = locationId;
+        return nearest(grid, point.latitude(), point.longitude(), limit, radiusKm,
+                id -> id != self && airportIds.contains(id));
+    }
+
+    public int size() {
+        return current().points().size();
+    }
+
+    private List<NearbyLocationDTO> nearest(Grid grid, double latitude, double longitude, int limit, Double radiusKm,
+                                            LongPredicate filter) {
+        int cap = Math.max(1, Math.min(limit, MAX_LIMIT));
+        double maxRadius = radiusKm == null ? HALF_CIRCUMFERENCE_KM : Math.min(radiusKm, HALF_CIRCUMFERENCE_KM);
+        double radius = Math.min(INITIAL_RADIUS_KM, maxRadius);
+        List<Match> matches;
+        while (true) {
+            matches = within(grid, latitude, longitude, radius, filter);
+            if (matches.size() >= cap || radius >= maxRadius) {
+                break;
+            }
+            radius = Math.min(radius * 4, maxRadius);
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::distanceKm)
+                .thenComparing(match -> match.point().location().getLocationCode()));
+        var result = new ArrayList<NearbyLocationDTO>(Math.min(cap, matches.size()));
+        for (int i = 0; i < matches.size() && i < cap; i++) {
+            var match = matches.get(i);
+            result.add(new NearbyLocationDTO(match.point().location(), Math.round(match.distanceKm() * 10) / 10.0));
+        }
+        return result;
+    }
+
+    /**
+     * Every accepted location within {@code radiusKm} of the given point, unordered.
+     */
+    private static List<Match> within(Grid grid, double latitude, double longitude, double radiusKm,
+                                      LongPredicate filter) {
+        var matches = new ArrayList<Match>();
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double lat = Math.toRadians(latitude);
+        double minLat = lat - angularRadius;
+        double maxLat = lat + angularRadius;
+
+        // Bounding box of the circle; near a pole it spans every longitude
+        int firstColumn = 0;
+        int lastColumn = COLUMNS - 1;
+        if (minLat > -Math.PI / 2 && maxLat < Math.PI / 2) {
+            double deltaLon = Math.toDegrees(Math.asin(Math.min(1, Math.sin(angularRadius) / Math.cos(lat))));
+            int west = column(longitude - deltaLon);
+            int east = column(longitude + deltaLon);
+            if (east - west + 1 < COLUMNS) {
+                firstColumn = west;
+                lastColumn = east;
+            }
+        }
+        int firstRow = row(Math.max(-90, Math.toDegrees(minLat)));
+        int lastRow = row(Math.min(90, Math.toDegrees(maxLat)));
+
+        long cellCount = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        if (cellCount > grid.points().size()) {
+            collect(grid.points().values(), latitude, longitude, radiusKm, filter, matches);
+            return matches;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                var cell = grid.cells().get(cellKey(row, Math.floorMod(column, COLUMNS)));
+                if (cell != null) {
+                    collect(cell, latitude, longitude, radiusKm, filter, matches);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void collect(Collection<Point> candidates, double latitude, double longitude, double radiusKm,
+                                LongPredicate filter, List<Match> matches) {
+        for (var point : candidates) {
+            if (!filter.test(point.location().getId())) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance <= radiusKm) {
+                matches.add(new Match(point, distance));
+            }
+        }
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private Grid current() {
+        var locations = locationRegistry.locations();
+        var known = grid;
+        if (known != null && known.generation() == locations.generation()) {
+            return known;
+        }
+        synchronized (this) {
+            known = grid;
+            if (known == null || known.generation() != locations.generation()) {
+                known = build(locations);
+                grid = known;
+            }
+            return known;
+        }
+    }
+
+    private static Grid build(LocationRegistry.Locations locations) {
+        long start = System.nanoTime();
+        var grid = new Grid(locations.generation(), new HashMap<>(), new HashMap<>());
+        for (var location : locations.all()) {
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                continue;
+            }
+            var point = new Point(location, location.getLatitude(), location.getLongitude(),
+                    cellKey(row(location.getLatitude()), column(location.getLongitude())));
+            grid.points().put(location.getId(), point);
+            grid.cells().computeIfAbsent(point.cell(), key -> new ArrayList<>()).add(point);
+        }
+        log.info("Location spatial index built: {} located points in {} cells in {} ms",
+                grid.points().size(), grid.cells().size(), (System.nanoTime() - start) / 1_000_000);
+        return grid;
+    }
+
+    /**
+     * Origins and destinations of the flights of every weekday, kept until a day's generation moves on.
+     */
+    private Set<Long> airportIds() {
+        var generations = new long[8];
+        for (int day = 1; day <= 7; day++) {
+            generations[day] = cacheGenerations.current(RouteReachabilityIndex.generationName(day));
+        }
+        var known = airports;
+        if (known == null || !Arrays.equals(known.generations(), generations)) {
+            var ids = new HashSet<Long>();
+            for (int day = 1; day <= 7; day++) {
+                for (var flight : legCache.flightsOn(day)) {
+                    ids.add(flight.origin().getId());
+                    ids.add(flight.destination().getId());
+                }
+            }
+            known = new Airports(generations, Set.copyOf(ids));
+            airports = known;
+        }
+        return known.ids();
+    }
+
+    private static void validate(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90");
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180");
+        }
+    }
+
+    private static void validate(Double radiusKm) {
+        if (radiusKm != null && !(radiusKm > 0)) {
+            throw new IllegalArgumentException("radiusKm must be positive");
+        }
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    // Not wrapped, so a box crossing the antimeridian spans a contiguous range; cellKey wraps it
+    private static int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+
+    private static int cellKey(int row, int column) {
+        return row * COLUMNS + Math.floorMod(column, COLUMNS);
+    }
+
+    private record Point(LocationDTO location, double latitude, double longitude, int cell) {
+    }
+
+    private record Match(Point point, double distanceKm) {
+    }
+
+    /**
+     * One build of the grid, never modified once published.
+     */
+    private record Grid(long generation, Map<Long, Point> points, Map<Integer, List<Point>> cells) {
+    }
+
+    private record Airports(long[] generations, Set<Long> ids) {
+    }
+}
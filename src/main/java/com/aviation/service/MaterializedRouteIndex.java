@@ -0,0 +1,307 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.dto.RouteDTO;
+import com.aviation.dto.RouteDTO.TransportationSegmentDTO;
+import com.aviation.dto.RouteIndexStatsDTO;
+import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
+import com.aviation.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Opt-in, fully materialised route table: the result of every origin/destination pair for each
+ * of the 7 weekdays, precomputed so {@link RouteService#findRoutes} becomes a pair of map lookups.
+ *
+ * <p>Enabled with {@code aviation.routes.materialized-index.enabled=true}. The table is built once
+ * the application is ready and maintained incrementally afterwards: a committed transportation change
+ * only recomputes the pairs the changed leg can take part in, on the days it operates:
+ * <ul>
+ *   <li>Flight {@code A → B}: origins departing via {@code A} × destinations arriving via {@code B}</li>
+ *   <li>Ground {@code A → B} as before-flight transfer: {@code A} × everything reachable by flight from {@code B}</li>
+ *   <li>Ground {@code A → B} as after-flight transfer: every origin flying into {@code A} × {@code B}</li>
+ * </ul>
+ * Routes are stored with the {@link LocationRegistry} views of their locations; a renamed location gets a new
+ * view there, and reads swap it into the routes that still hold the old one, so a rename never touches the table.
+ * Seasonal validity is not materialised: the table holds every leg of the weekday and
+ * {@link RouteService} filters out routes using a leg out of season.
+ *
+ * <p>Each weekday's table records the {@link CacheGenerations} counter it was built at. A committed change
+ * advances the counters of its days, so an instance that did not apply it itself, or that was still building
+ * when it arrived, sees a newer generation and rebuilds the day before serving it; the initial build checks the
+ * counters again once it is done. The instance making the change applies it incrementally when no other
+ * change came in between.
+ */
+@Component
+@RequiredArgsConstructor
+public class MaterializedRouteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MaterializedRouteIndex.class);
+
+    // Rough per-object footprints on a 64-bit JVM with compressed oops, used for the memory estimate
+    private static final int BYTES_PER_PAIR = 96;
+    private static final int BYTES_PER_ROUTE = 72;
+    private static final int BYTES_PER_SEGMENT = 40;
+
+    private final TransportationRepository transportationRepository;
+    private final LocationRegistry locationRegistry;
+    private final CacheGenerations cacheGenerations;
+
+    @Value("${aviation.routes.materialized-index.enabled:false}")
+    private boolean enabled;
+
+    // Index 1..7 (Monday..Sunday): origin -> destination -> routes; slot 0 unused
+    private final AtomicReferenceArray<Map<Long, Map<Long, List<RouteDTO>>>> routesByDay = new AtomicReferenceArray<>(8);
+    // Generation each day's table was built at or last updated to, same indexing
+    private final AtomicLongArray builtGenerations = new AtomicLongArray(8);
+
+    private volatile boolean ready;
+    private volatile Instant builtAt;
+    private volatile long lastFullRebuildMillis;
+    private volatile long lastIncrementalUpdateMicros;
+    private volatile int lastIncrementalPairs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether route searches can be answered from the index right now.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    public List<RouteDTO> findRoutes(Long originId, Long destinationId, LocalDate date) {
+        var byDestination = routesOn(date.getDayOfWeek().getValue()).get(originId);
+        var routes = byDestination != null ? byDestination.getOrDefault(destinationId, List.<RouteDTO>of()) : List.<RouteDTO>of();
+        return routes.stream().map(this::withCurrentLocations).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes the whole table, one DB round-trip per weekday.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        for (int day = 1; day <= 7; day++) {
+            rebuildDay(day);
+        }
+        lastFullRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        builtAt = Instant.now();
+        ready = true;
+        log.info("Materialized route index built in {} ms", lastFullRebuildMillis);
+        // Changes committed while the build ran are not in every day it already loaded
+        for (int day = 1; day <= 7; day++) {
+            if (builtGenerations.get(day) != cacheGenerations.current(generationName(day))) {
+                rebuildDay(day);
+            }
+        }
+    }
+
+    /**
+     * Advances the generations of the days the change operates on, then applies it to those days here.
+     * Nothing is applied before the initial build, which picks the change up through the generations.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransportationChanged(TransportationChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        var generations = new HashMap<Integer, Long>();
+        for (int day : event.affectedDays()) {
+            generations.put(day, cacheGenerations.advance(generationName(day)));
+        }
+        if (ready) {
+            apply(event, generations);
+        }
+    }
+
+    private synchronized void apply(TransportationChangedEvent event, Map<Integer, Long> generations) {
+        long start = System.nanoTime();
+        int recomputed = 0;
+        for (var dayGeneration : generations.entrySet()) {
+            int day = dayGeneration.getKey();
+            long generation = dayGeneration.getValue();
+            long built = builtGenerations.get(day);
+            if (built >= generation) {
+                // Already rebuilt by a read that saw the new generation
+                continue;
+            }
+            if (built != generation - 1) {
+                // Another change came in between, only a rebuild covers both
+                rebuildDay(day);
+                continue;
+            }
+            var graph = loadGraph(day);
+            var pairs = new HashMap<Long, Set<Long>>();
+            for (var leg : new LegState[]{event.previous(), event.current()}) {
+                if (leg != null && leg.operatingDays().contains(day)) {
+                    collectAffectedPairs(graph, leg, pairs);
+                }
+            }
+            recomputed += recompute(day, graph, pairs);
+            builtGenerations.set(day, generation);
+        }
+        lastIncrementalUpdateMicros = (System.nanoTime() - start) / 1_000;
+        lastIncrementalPairs = recomputed;
+        log.debug("Materialized route index updated: {} pairs recomputed in {} µs",
+                recomputed, lastIncrementalUpdateMicros);
+    }
+
+    /**
+     * The day's table, rebuilt first when a change has advanced its generation since it was built.
+     */
+    private Map<Long, Map<Long, List<RouteDTO>>> routesOn(int day) {
+        if (builtGenerations.get(day) != cacheGenerations.current(generationName(day))) {
+            synchronized (this) {
+                if (builtGenerations.get(day) != cacheGenerations.current(generationName(day))) {
+                    rebuildDay(day);
+                }
+            }
+        }
+        return routesByDay.get(day);
+    }
+
+    /**
+     * Recomputes one day from a single DB round-trip. The generation is read first, so a change committed
+     * while the day loads leaves it stale rather than lost.
+     */
+    private void rebuildDay(int day) {
+        long generation = cacheGenerations.current(generationName(day));
+        var graph = loadGraph(day);
+        var byOrigin = new ConcurrentHashMap<Long, Map<Long, List<RouteDTO>>>();
+        for (var originId : graph.origins()) {
+            var byDestination = graph.routesFrom(originId);
+            if (!byDestination.isEmpty()) {
+                byOrigin.put(originId, Map.copyOf(byDestination));
+            }
+        }
+        routesByDay.set(day, byOrigin);
+        builtGenerations.set(day, generation);
+        log.debug("Materialized route index rebuilt for day {} at generation {}", day, generation);
+    }
+
+    public RouteIndexStatsDTO getStats() {
+        int pairs = 0;
+        long routes = 0;
+        long segments = 0;
+        if (ready) {
+            for (int day = 1; day <= 7; day++) {
+                for (var byDestination : routesByDay.get(day).values()) {
+                    pairs += byDestination.size();
+                    for (var dayRoutes : byDestination.values()) {
+                        routes += dayRoutes.size();
+                        for (var route : dayRoutes) {
+                            segments += route.getSegments().size();
+                        }
+                    }
+                }
+            }
+        }
+        long estimatedBytes = (long) pairs * BYTES_PER_PAIR + routes * BYTES_PER_ROUTE + segments * BYTES_PER_SEGMENT;
+        return new RouteIndexStatsDTO(enabled, ready, pairs, routes, segments, estimatedBytes,
+                lastFullRebuildMillis, lastIncrementalUpdateMicros, lastIncrementalPairs, builtAt);
+    }
+
+    private static void collectAffectedPairs(RouteGraph graph, LegState leg, Map<Long, Set<Long>> pairs) {
+        if (leg.type() == TransportationType.FLIGHT) {
+            var destinations = graph.destinationsArrivingVia(leg.destinationId());
+            for (var originId : graph.originsDepartingVia(leg.originId())) {
+                pairs.computeIfAbsent(originId, id -> new HashSet<>()).addAll(destinations);
+            }
+            return;
+        }
+        // As a before-flight transfer: leg origin to anything reachable by flight from the leg destination
+        var beforeDestinations = pairs.computeIfAbsent(leg.originId(), id -> new HashSet<>());
+        for (var airportId : graph.flightDestinationsFrom(leg.destinationId())) {
+            beforeDestinations.addAll(graph.destinationsArrivingVia(airportId));
+        }
+        // As an after-flight transfer: anything flying into the leg origin to the leg destination
+        for (var airportId : graph.flightOriginsInto(leg.originId())) {
+            for (var originId : graph.originsDepartingVia(airportId)) {
+                pairs.computeIfAbsent(originId, id -> new HashSet<>()).add(leg.destinationId());
+            }
+        }
+    }
+
+    private int recompute(int day, RouteGraph graph, Map<Long, Set<Long>> pairs) {
+        var byOrigin = routesByDay.get(day);
+        int recomputed = 0;
+        for (var entry : pairs.entrySet()) {
+            var originId = entry.getKey();
+            // Copy-on-write so concurrent readers always see a consistent per-origin map
+            var byDestination = new HashMap<>(byOrigin.getOrDefault(originId, Map.of()));
+            for (var destinationId : entry.getValue()) {
+                var routes = graph.routesBetween(originId, destinationId);
+                if (routes.isEmpty()) {
+                    byDestination.remove(destinationId);
+                } else {
+                    byDestination.put(destinationId, routes);
+                }
+                recomputed++;
+            }
+            if (byDestination.isEmpty()) {
+                byOrigin.remove(originId);
+            } else {
+                byOrigin.put(originId, Map.copyOf(byDestination));
+            }
+        }
+        return recomputed;
+    }
+
+    /**
+     * The route with every location view replaced by the registry's current one, or the route itself when
+     * none of its locations has changed since it was computed.
+     */
+    private RouteDTO withCurrentLocations(RouteDTO route) {
+        List<TransportationSegmentDTO> segments = null;
+        for (int i = 0; i < route.getSegments().size(); i++) {
+            var segment = route.getSegments().get(i);
+            var from = locationRegistry.require(segment.from().getId());
+            var to = locationRegistry.require(segment.to().getId());
+            if (segments == null && (from != segment.from() || to != segment.to())) {
+                segments = new ArrayList<>(route.getSegments().subList(0, i));
+            }
+            if (segments != null) {
+                segments.add(new TransportationSegmentDTO(segment.transportationId(), segment.type(), from, to,
+                        segment.segmentType()));
+            }
+        }
+        return segments != null ? new RouteDTO(segments) : route;
+    }
+
+    static String generationName(int dayOfWeek) {
+        return "materializedRoutes:" + dayOfWeek;
+    }
+
+    private RouteGraph loadGraph(int dayOfWeek) {
+        return RouteGraph.of(RouteLeg.fromRows(transportationRepository.findLegsOperatingOn(dayOfWeek), locationRegistry));
+    }
+}
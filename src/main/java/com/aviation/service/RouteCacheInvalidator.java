@@ -0,0 +1,141 @@
+package com.aviation.service;
+
+import com.aviation.entity.TransportationType;
+import com.aviation.event.LocationChangedEvent;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
+import com.aviation.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Evicts only the {@code routes} cache entries an admin change can affect, instead of clearing the cache.
+ *
+ * <p>Scoping rules, applied per day the changed leg operates on (before and after the change):
+ * <ul>
+ *   <li>Flight {@code A → B}: searches from {@code A} or a location with a ground transfer into {@code A},
+ *       to {@code B} or a location with a ground transfer out of {@code B}</li>
+ *   <li>Ground transfer {@code A → B}: searches from {@code A} (before-flight role) and searches to {@code B}
+ *       (after-flight role)</li>
+ *   <li>One-to-many reachability entries of that day</li>
+ * </ul>
+ * A renamed or deleted location evicts only the entries that embed it. Created locations have no legs
+ * yet and cannot appear in any cached route.
+ *
+ * <p>The {@code routeLegs} tiers of {@link RouteLegCache} are evicted alongside: the day's flight tier for
+ * a changed flight, the origin and destination tiers for a changed ground transfer. Tiers only hold location
+ * ids, so location changes leave them alone.
+ *
+ * <p>Cached response bodies in {@code routeResponses} are indexed like {@code routes} entries, including by the
+ * locations they embed, and are evicted with them.
+ *
+ * <p>Negative results in {@code routeMisses} are cleared whenever a location or transportation is added
+ * or changed, since either can turn an unknown location or an empty search into a hit.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteCacheInvalidator.class);
+
+    private final RouteCacheKeyIndex keyIndex;
+    private final TransportationRepository transportationRepository;
+    private final CacheManager cacheManager;
+
+    // Ahead of the listeners advancing the day generations, so readers that follow them find the tiers evicted
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransportationChanged(TransportationChangedEvent event) {
+        var keys = new HashSet<String>();
+        for (var leg : new LegState[]{event.previous(), event.current()}) {
+            if (leg != null) {
+                keys.addAll(affectedKeys(leg));
+            }
+        }
+        for (int day : event.affectedDays()) {
+            keys.addAll(keyIndex.keysDependingOnNetwork(day));
+        }
+        evict(keys);
+        evictLegTiers(event);
+        if (event.current() != null) {
+            clear("routeMisses");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        if (event.changeType() == LocationChangedEvent.ChangeType.CREATED) {
+            clear("routeMisses");
+        } else {
+            evict(keyIndex.keysMentioning(event.locationId()));
+        }
+    }
+
+    private Set<String> affectedKeys(LegState leg) {
+        var keys = new HashSet<String>();
+        if (leg.type() == TransportationType.FLIGHT) {
+            var origins = new HashSet<Long>(transportationRepository.findGroundOriginIdsInto(leg.originId()));
+            origins.add(leg.originId());
+            var destinations = new HashSet<Long>(transportationRepository.findGroundDestinationIdsFrom(leg.destinationId()));
+            destinations.add(leg.destinationId());
+            for (int day : leg.operatingDays()) {
+                keys.addAll(keyIndex.keysBetween(origins, destinations, day));
+            }
+        } else {
+            for (int day : leg.operatingDays()) {
+                keys.addAll(keyIndex.keysFrom(leg.originId(), day));
+                keys.addAll(keyIndex.keysTo(leg.destinationId(), day));
+            }
+        }
+        return keys;
+    }
+
+    private void evictLegTiers(TransportationChangedEvent event) {
+        var legs = cacheManager.getCache("routeLegs");
+        if (legs == null) {
+            return;
+        }
+        for (var leg : new LegState[]{event.previous(), event.current()}) {
+            if (leg == null) {
+                continue;
+            }
+            for (int day : leg.operatingDays()) {
+                if (leg.type() == TransportationType.FLIGHT) {
+                    legs.evict(RouteLegCache.flightsKey(day));
+                } else {
+                    legs.evict(RouteLegCache.groundFromKey(leg.originId(), day));
+                    legs.evict(RouteLegCache.groundIntoKey(leg.destinationId(), day));
+                }
+            }
+        }
+    }
+
+    private void clear(String cacheName) {
+        var cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evict(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        for (var cacheName : new String[]{"routes", "routeResponses"}) {
+            var cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                keys.forEach(cache::evict);
+            }
+        }
+        log.debug("Evicted {} route cache entries", keys.size());
+    }
+}
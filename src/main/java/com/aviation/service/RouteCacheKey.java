@@ -0,0 +1,61 @@
+package com.aviation.service;
+
+import java.time.LocalDate;
+import java.util.StringJoiner;
+
+/**
+ * Structured key of a {@code routes} cache entry.
+ *
+ * <p>Keeping the origin, destination and date as fields (rather than only a concatenated string) lets
+ * cache decorators index entries by location and day without parsing. {@link #toString()} renders the
+ * Redis key, e.g. {@code route:1:4:2025-03-10}. Route searches key on the schedule date of
+ * {@link TransportationValidityIndex} rather than the requested date, so a season's dates share entries.
+ *
+ * @param kind          entry family, {@code route} or {@code reachable}
+ * @param destinationId {@code null} for one-to-many entries
+ * @param variant       optional discriminator for entries of the same kind and locations
+ */
+public record RouteCacheKey(String kind, Long originId, Long destinationId, LocalDate date, String variant) {
+
+    public static final String ROUTE = "route";
+    public static final String REACHABLE = "reachable";
+
+    public static RouteCacheKey route(Long originId, Long destinationId, LocalDate date) {
+        return new RouteCacheKey(ROUTE, originId, destinationId, date, null);
+    }
+
+    public static RouteCacheKey reachable(Long originId, LocalDate date, boolean includeRoutes) {
+        return new RouteCacheKey(REACHABLE, originId, null, date, String.valueOf(includeRoutes));
+    }
+
+    /**
+     * Same entry identity with a different representation, e.g. a compact response body.
+     */
+    public RouteCacheKey withVariant(String variant) {
+        return new RouteCacheKey(kind, originId, destinationId, date, variant);
+    }
+
+    /**
+     * Appends a discriminator to the current variant, e.g. a response format on top of search constraints.
+     */
+    public RouteCacheKey plusVariant(String variant) {
+        return withVariant(this.variant == null ? variant : this.variant + "-" + variant);
+    }
+
+    public int dayOfWeek() {
+        return date.getDayOfWeek().getValue();
+    }
+
+    @Override
+    public String toString() {
+        var joiner = new StringJoiner(":").add(kind).add(String.valueOf(originId));
+        if (destinationId != null) {
+            joiner.add(String.valueOf(destinationId));
+        }
+        joiner.add(String.valueOf(date));
+        if (variant != null) {
+            joiner.add(variant);
+        }
+        return joiner.toString();
+    }
+}
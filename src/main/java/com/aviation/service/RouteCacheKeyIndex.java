@@ -0,0 +1,164 @@
+package com.aviation.service;
+
+import com.aviation.dto.CompactRoutesDTO;
+import com.aviation.dto.ReachableDestinationDTO;
+import com.aviation.dto.RouteDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reverse index from (location, day of week) to the {@code routes} cache keys that depend on it,
+ * stored as Redis sets so every application instance sees the keys written by the others.
+ *
+ * <p>Each entry is registered under one set per role its locations play:
+ * <ul>
+ *   <li>{@code origin} / {@code destination}: the endpoints of the search</li>
+ *   <li>{@code via}: every location embedded in the cached routes, e.g. transfer airports</li>
+ *   <li>{@code network}: one-to-many entries, which depend on the whole day's network</li>
+ * </ul>
+ * Index sets expire together with the entries they point to, so dangling members age out on their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteCacheKeyIndex {
+
+    private static final String PREFIX = "routes-index:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    // Matches the physical routes entry TTL configured in CacheConfig
+    @Value("${aviation.cache.routes.ttl:10m}")
+    private Duration entryTtl;
+
+    @Value("${aviation.cache.routes.stale-grace:5m}")
+    private Duration staleGrace;
+
+    public void register(RouteCacheKey key, Object value) {
+        int day = key.dayOfWeek();
+        var cacheKey = key.toString();
+        var sets = new ArrayList<String>();
+        sets.add(originSet(key.originId(), day));
+        if (key.destinationId() != null) {
+            sets.add(destinationSet(key.destinationId(), day));
+        } else {
+            sets.add(networkSet(day));
+        }
+        for (var locationId : embeddedLocationIds(value)) {
+            sets.add(viaSet(locationId, day));
+        }
+
+        long ttlSeconds = entryTtl.plus(staleGrace).getSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            var member = cacheKey.getBytes(StandardCharsets.UTF_8);
+            for (var set : sets) {
+                var setKey = set.getBytes(StandardCharsets.UTF_8);
+                connection.setCommands().sAdd(setKey, member);
+                connection.keyCommands().expire(setKey, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Keys of entries searching from any of the origins to any of the destinations on the given day.
+     */
+    public Set<String> keysBetween(Collection<Long> originIds, Collection<Long> destinationIds, int day) {
+        var fromOrigins = union(originIds.stream().map(id -> originSet(id, day)).toList());
+        if (fromOrigins.isEmpty()) {
+            return fromOrigins;
+        }
+        fromOrigins.retainAll(union(destinationIds.stream().map(id -> destinationSet(id, day)).toList()));
+        return fromOrigins;
+    }
+
+    public Set<String> keysFrom(Long originId, int day) {
+        return members(originSet(originId, day));
+    }
+
+    public Set<String> keysTo(Long destinationId, int day) {
+        return members(destinationSet(destinationId, day));
+    }
+
+    public Set<String> keysDependingOnNetwork(int day) {
+        return members(networkSet(day));
+    }
+
+    /**
+     * Keys of every entry that mentions the location in any role, on any day.
+     */
+    public Set<String> keysMentioning(Long locationId) {
+        var sets = new ArrayList<String>();
+        for (int day = 1; day <= 7; day++) {
+            sets.add(originSet(locationId, day));
+            sets.add(destinationSet(locationId, day));
+            sets.add(viaSet(locationId, day));
+        }
+        return union(sets);
+    }
+
+    private Set<String> union(List<String> sets) {
+        if (sets.isEmpty()) {
+            return new HashSet<>();
+        }
+        var members = redisTemplate.opsForSet().union(sets);
+        return members != null ? new HashSet<>(members) : new HashSet<>();
+    }
+
+    private Set<String> members(String set) {
+        var members = redisTemplate.opsForSet().members(set);
+        return members != null ? new HashSet<>(members) : new HashSet<>();
+    }
+
+    private static Set<Long> embeddedLocationIds(Object value) {
+        var ids = new HashSet<Long>();
+        if (value instanceof CompactRoutesDTO compact) {
+            ids.addAll(compact.locations().keySet());
+        } else if (value instanceof Collection<?> entries) {
+            for (var entry : entries) {
+                if (entry instanceof RouteDTO route) {
+                    collectLocationIds(route, ids);
+                } else if (entry instanceof ReachableDestinationDTO reachable) {
+                    ids.add(reachable.getDestination().getId());
+                    if (reachable.getRoutes() != null) {
+                        reachable.getRoutes().forEach(route -> collectLocationIds(route, ids));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void collectLocationIds(RouteDTO route, Set<Long> ids) {
+        for (var segment : route.getSegments()) {
+            ids.add(segment.from().getId());
+            ids.add(segment.to().getId());
+        }
+    }
+
+    private static String originSet(Long locationId, int day) {
+        return PREFIX + "origin:" + locationId + ":" + day;
+    }
+
+    private static String destinationSet(Long locationId, int day) {
+        return PREFIX + "destination:" + locationId + ":" + day;
+    }
+
+    private static String viaSet(Long locationId, int day) {
+        return PREFIX + "via:" + locationId + ":" + day;
+    }
+
+    private static String networkSet(int day) {
+        return PREFIX + "network:" + day;
+    }
+}
@@ -0,0 +1,134 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteDTO;
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Restrictions a route search pushes down into leg loading and enumeration, so excluded legs are never
+ * loaded or combined: the allowed transportation types, the maximum number of segments and the allowed
+ * segment types (e.g. only {@code FLIGHT} for direct flights, or no {@code BEFORE_FLIGHT} transfers).
+ *
+ * @param maxSegments between 1 (direct flights only) and {@value #MAX_SEGMENTS}
+ */
+public record RouteConstraints(Set<TransportationType> transportationTypes, int maxSegments,
+                               Set<SegmentType> segmentTypes) {
+
+    public static final int MAX_SEGMENTS = 3;
+
+    private static final RouteConstraints NONE = new RouteConstraints(
+            Collections.unmodifiableSet(EnumSet.allOf(TransportationType.class)), MAX_SEGMENTS,
+            Collections.unmodifiableSet(EnumSet.allOf(SegmentType.class)));
+
+    public static RouteConstraints none() {
+        return NONE;
+    }
+
+    /**
+     * Builds constraints from optional request parameters; {@code null} or empty means unrestricted.
+     */
+    public static RouteConstraints of(Collection<TransportationType> transportationTypes, Integer maxSegments,
+                                      Collection<SegmentType> segmentTypes) {
+        if (maxSegments != null && (maxSegments < 1 || maxSegments > MAX_SEGMENTS)) {
+            throw new IllegalArgumentException("maxSegments must be between 1 and " + MAX_SEGMENTS);
+        }
+        var constraints = new RouteConstraints(
+                transportationTypes == null || transportationTypes.isEmpty()
+                        ? NONE.transportationTypes
+                        : Collections.unmodifiableSet(EnumSet.copyOf(transportationTypes)),
+                maxSegments == null ? MAX_SEGMENTS : maxSegments,
+                segmentTypes == null || segmentTypes.isEmpty()
+                        ? NONE.segmentTypes
+                        : Collections.unmodifiableSet(EnumSet.copyOf(segmentTypes)));
+        return constraints.equals(NONE) ? NONE : constraints;
+    }
+
+    public boolean isUnconstrained() {
+        return equals(NONE);
+    }
+
+    /**
+     * Every route has exactly one flight; without it nothing can match.
+     */
+    public boolean allowsAnyRoute() {
+        return transportationTypes.contains(TransportationType.FLIGHT) && segmentTypes.contains(SegmentType.FLIGHT);
+    }
+
+    public boolean restrictsTransportationTypes() {
+        return !transportationTypes.equals(NONE.transportationTypes);
+    }
+
+    public boolean allowsBeforeTransfers() {
+        return maxSegments >= 2 && segmentTypes.contains(SegmentType.BEFORE_FLIGHT) && allowsGround();
+    }
+
+    public boolean allowsAfterTransfers() {
+        return maxSegments >= 2 && segmentTypes.contains(SegmentType.AFTER_FLIGHT) && allowsGround();
+    }
+
+    public boolean allowsTwoTransfers() {
+        return maxSegments >= 3 && allowsBeforeTransfers() && allowsAfterTransfers();
+    }
+
+    public boolean allows(RouteLeg leg) {
+        return transportationTypes.contains(leg.type());
+    }
+
+    /**
+     * Checks a route built without these constraints, e.g. one served from {@link MaterializedRouteIndex}.
+     */
+    public boolean allows(RouteDTO route) {
+        var segments = route.getSegments();
+        if (segments.size() > maxSegments) {
+            return false;
+        }
+        for (var segment : segments) {
+            if (!transportationTypes.contains(segment.type()) || !segmentTypes.contains(segment.segmentType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Canonical cache key discriminator, {@code null} when unconstrained, e.g. {@code types=BUS,FLIGHT;max=2}.
+     */
+    public String variant() {
+        if (isUnconstrained()) {
+            return null;
+        }
+        var joiner = new StringJoiner(";");
+        if (restrictsTransportationTypes()) {
+            joiner.add("types=" + join(transportationTypes));
+        }
+        if (maxSegments != MAX_SEGMENTS) {
+            joiner.add("max=" + maxSegments);
+        }
+        if (!segmentTypes.equals(NONE.segmentTypes)) {
+            joiner.add("segments=" + join(segmentTypes));
+        }
+        return joiner.toString();
+    }
+
+    private boolean allowsGround() {
+        for (var type : transportationTypes) {
+            if (type.isGroundTransport()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String join(Set<? extends Enum<?>> values) {
+        // EnumSet iterates in declaration order, so equal sets give equal keys
+        var joiner = new StringJoiner(",");
+        values.forEach(value -> joiner.add(value.name()));
+        return joiner.toString();
+    }
+}
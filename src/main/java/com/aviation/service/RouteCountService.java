@@ -0,0 +1,55 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteCountDTO;
+import com.aviation.dto.RouteCountRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Route counts for many origin/destination pairs at once, without materialising any route.
+ *
+ * <p>A pair whose full search is already in the {@code routes} cache is answered from the size of that
+ * entry. The remaining pairs are counted arithmetically by {@link RouteService#countRoutes(java.util.Collection,
+ * java.time.LocalDate, RouteConstraints)} against one graph of the day's network, loaded once per request.
+ */
+@Service
+@RequiredArgsConstructor
+public class RouteCountService {
+
+    private final RouteService routeService;
+    private final CacheManager cacheManager;
+    private final TransportationValidityIndex validityIndex;
+
+    public List<RouteCountDTO> countRoutes(RouteCountRequest request, RouteConstraints constraints) {
+        var cache = cacheManager.getCache("routes");
+        var scheduleDate = validityIndex.scheduleDate(request.date());
+        var counts = new HashMap<RouteCountRequest.Pair, Integer>();
+        var uncached = new LinkedHashSet<RouteCountRequest.Pair>();
+        for (var pair : request.pairs()) {
+            var searchKey = RouteCacheKey.route(pair.originId(), pair.destinationId(), scheduleDate)
+                    .withVariant(constraints.variant());
+            var cached = cache != null ? cache.get(searchKey) : null;
+            if (cached != null && cached.get() instanceof List<?> routes) {
+                counts.put(pair, routes.size());
+            } else {
+                uncached.add(pair);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            counts.putAll(routeService.countRoutes(uncached, request.date(), constraints));
+        }
+
+        var results = new ArrayList<RouteCountDTO>(request.pairs().size());
+        for (var pair : request.pairs()) {
+            int count = counts.get(pair);
+            results.add(new RouteCountDTO(pair.originId(), pair.destinationId(), count, count > 0));
+        }
+        return results;
+    }
+}
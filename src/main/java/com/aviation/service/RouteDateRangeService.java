@@ -0,0 +1,53 @@
+package com.aviation.service;
+
+import com.aviation.dto.DatedRoutesDTO;
+import com.aviation.dto.RouteDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Flexible-date route search: the routes between two locations on every date of a range.
+ *
+ * <p>Routes only depend on the weekday and the season, i.e. on the schedule date of
+ * {@link TransportationValidityIndex}, so each distinct schedule date in the range is searched once, through
+ * the cached {@link RouteService#findRoutes}, and the result is shared by every date mapping to it.
+ * A 30-day range within one season costs at most 7 searches.
+ */
+@Service
+@RequiredArgsConstructor
+public class RouteDateRangeService {
+
+    private final RouteService routeService;
+    private final TransportationValidityIndex validityIndex;
+
+    @Value("${aviation.routes.flexible.max-days:62}")
+    private int maxDays;
+
+    public List<DatedRoutesDTO> findRoutes(Long originId, Long destinationId, LocalDate from, LocalDate to,
+                                           RouteConstraints constraints) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end must not be before its start");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxDays + " days");
+        }
+
+        var routesByScheduleDate = new HashMap<LocalDate, List<RouteDTO>>();
+        var result = new ArrayList<DatedRoutesDTO>((int) days);
+        for (var date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            var searchDate = date;
+            var routes = routesByScheduleDate.computeIfAbsent(validityIndex.scheduleDate(date),
+                    scheduleDate -> routeService.findRoutes(originId, destinationId, searchDate, constraints));
+            result.add(new DatedRoutesDTO(date, routes));
+        }
+        return result;
+    }
+}
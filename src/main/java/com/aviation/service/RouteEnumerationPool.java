@@ -0,0 +1,105 @@
+package com.aviation.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded ForkJoin pool that splits the expensive part of a route enumeration across cores.
+ *
+ * <p>Work below {@code aviation.routes.parallel.threshold} estimated combinations runs on the calling
+ * thread, so small searches pay nothing. Larger work is cut into contiguous chunks of roughly equal
+ * weight, at most {@code aviation.routes.parallel.max-tasks-per-search} of them, so a single mega-hub
+ * search cannot occupy the whole pool. The caller runs the first chunk itself and results are
+ * concatenated in chunk order, giving the same ordering as a sequential run.
+ */
+@Component
+public class RouteEnumerationPool {
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final int maxTasksPerSearch;
+
+    public RouteEnumerationPool(@Value("${aviation.routes.parallel.pool-size:0}") int poolSize,
+                                @Value("${aviation.routes.parallel.threshold:50000}") long threshold,
+                                @Value("${aviation.routes.parallel.max-tasks-per-search:4}") int maxTasksPerSearch) {
+        this.pool = maxTasksPerSearch > 1 ? newPool(poolSize) : null;
+        this.threshold = Math.max(1, threshold);
+        this.maxTasksPerSearch = maxTasksPerSearch;
+    }
+
+    /**
+     * A pool that always runs on the calling thread.
+     */
+    public static RouteEnumerationPool sequential() {
+        return new RouteEnumerationPool(0, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * Applies {@code task} to contiguous chunks of {@code items} and concatenates the results in order.
+     *
+     * @param weight estimated number of combinations each item expands to
+     */
+    <T, R> List<R> map(List<T> items, ToLongFunction<T> weight, Function<List<T>, List<R>> task) {
+        if (pool == null || items.size() < 2) {
+            return task.apply(items);
+        }
+        long total = 0;
+        for (var item : items) {
+            total += weight.applyAsLong(item);
+        }
+        int chunks = (int) Math.min(Math.min(maxTasksPerSearch, items.size()), (total + threshold - 1) / threshold);
+        if (chunks < 2) {
+            return task.apply(items);
+        }
+
+        // Cut where the running weight crosses each chunk's share of the total
+        var forked = new ArrayList<ForkJoinTask<List<R>>>(chunks - 1);
+        List<T> first = null;
+        int start = 0;
+        long cumulative = 0;
+        for (int i = 0; i < items.size(); i++) {
+            cumulative += weight.applyAsLong(items.get(i));
+            boolean last = i == items.size() - 1;
+            int cut = forked.size() + (first == null ? 0 : 1);
+            if (last || (cut < chunks - 1 && cumulative >= total * (cut + 1) / chunks)) {
+                var chunk = items.subList(start, i + 1);
+                if (first == null) {
+                    first = chunk;
+                } else {
+                    forked.add(pool.submit(() -> task.apply(chunk)));
+                }
+                start = i + 1;
+            }
+        }
+
+        var results = new ArrayList<R>(task.apply(first));
+        for (var chunk : forked) {
+            results.addAll(chunk.join());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ForkJoinPool newPool(int poolSize) {
+        int parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("route-enumeration-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,493 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.dto.RouteDTO;
+import com.aviation.dto.RouteDTO.TransportationSegmentDTO;
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index over the transportations operating on a single day.
+ *
+ * <p>Flights and ground transfers are grouped by origin so that every route pattern
+ * can be enumerated with O(1) lookups per hop. The same enumeration serves point
+ * searches (one origin, one destination) and one-to-many searches (one origin,
+ * every destination) so both share exactly the same segment rules.
+ *
+ * <p>Location views are interned and every leg's segments are built once when the graph is
+ * created, so enumerating a route only allocates the route and its segment list; routes sharing
+ * a transfer or flight share the same immutable segment instances. The graph is never modified after
+ * construction, so enumeration chunks may read it from several threads.
+ */
+final class RouteGraph {
+
+    private final Map<Long, List<RouteLeg>> flightsByOrigin = new HashMap<>();
+    private final Map<Long, List<RouteLeg>> groundByOrigin = new HashMap<>();
+    private final Map<Long, List<RouteLeg>> flightsByDestination = new HashMap<>();
+    private final Map<Long, List<RouteLeg>> groundByDestination = new HashMap<>();
+    // origin -> destination -> number of flights, for counting routes without enumerating them
+    private final Map<Long, Map<Long, Integer>> flightCounts = new HashMap<>();
+
+    // Segments by transportation id; built once, read-only afterwards
+    private final Map<Long, TransportationSegmentDTO> flightSegments = new HashMap<>();
+    private final Map<Long, TransportationSegmentDTO> beforeSegments = new HashMap<>();
+    private final Map<Long, TransportationSegmentDTO> afterSegments = new HashMap<>();
+
+    private RouteGraph(Iterable<RouteLeg> legs) {
+        var locations = new HashMap<Long, LocationDTO>();
+        for (var source : legs) {
+            // Legs from separately cached tiers carry their own copies of shared locations
+            var leg = source.internLocations(locations);
+            boolean flight = leg.type() == TransportationType.FLIGHT;
+            if (flight) {
+                flightSegments.put(leg.transportationId(), createSegment(leg, SegmentType.FLIGHT));
+                flightCounts.computeIfAbsent(leg.originId(), id -> new HashMap<>()).merge(leg.destinationId(), 1, Integer::sum);
+            } else {
+                beforeSegments.put(leg.transportationId(), createSegment(leg, SegmentType.BEFORE_FLIGHT));
+                afterSegments.put(leg.transportationId(), createSegment(leg, SegmentType.AFTER_FLIGHT));
+            }
+            (flight ? flightsByOrigin : groundByOrigin)
+                    .computeIfAbsent(leg.originId(), id -> new ArrayList<>()).add(leg);
+            (flight ? flightsByDestination : groundByDestination)
+                    .computeIfAbsent(leg.destinationId(), id -> new ArrayList<>()).add(leg);
+        }
+    }
+
+    static RouteGraph of(Iterable<RouteLeg> legs) {
+        return new RouteGraph(legs);
+    }
+
+    /**
+     * Returns every route from the origin to the destination, in pattern order.
+     */
+    List<RouteDTO> routesBetween(Long originId, Long destinationId) {
+        return routesBetween(originId, destinationId, RouteConstraints.none(), RouteEnumerationPool.sequential());
+    }
+
+    /**
+     * Same as {@link #routesBetween(Long, Long)}, skipping the patterns {@code constraints} exclude and
+     * splitting the two-transfer pattern across {@code pool} when it is large enough. Legs of excluded
+     * transportation types are expected to have been left out of the graph already.
+     */
+    List<RouteDTO> routesBetween(Long originId, Long destinationId, RouteConstraints constraints,
+                                 RouteEnumerationPool pool) {
+        return collectRoutes(originId, destinationId::equals, constraints, pool);
+    }
+
+    /**
+     * Returns the best {@code limit} routes under {@code ranking} without building the rest.
+     *
+     * <p>Patterns are visited in segment count order (direct, one transfer, two transfers) while a bounded
+     * heap keeps the current top routes as bare legs. Once the heap is full, a candidate, or a whole
+     * before-flight transfer with everything behind it, is skipped as soon as its length and cost cannot
+     * beat the worst kept route, and longer patterns are not visited at all. Segments are only built for
+     * the routes returned.
+     */
+    List<RouteDTO> topRoutesBetween(Long originId, Long destinationId, RouteConstraints constraints,
+                                    RouteRanking ranking, int limit) {
+        var top = new TopRoutes(limit);
+        var flightsFromOrigin = flightsByOrigin.getOrDefault(originId, List.of());
+        var groundFromOrigin = constraints.allowsBeforeTransfers()
+                ? groundByOrigin.getOrDefault(originId, List.<RouteLeg>of())
+                : List.<RouteLeg>of();
+
+        for (var flight : flightsFromOrigin) {
+            if (destinationId.equals(flight.destinationId())) {
+                top.offer(1, 0, null, flight, null);
+            }
+        }
+        if (top.isFull() || constraints.maxSegments() < 2) {
+            return top.toRoutes();
+        }
+
+        for (var transfer : groundFromOrigin) {
+            int cost = ranking.groundCost(transfer.type());
+            if (top.rejects(2, cost)) {
+                continue;
+            }
+            for (var flight : flightsByOrigin.getOrDefault(transfer.destinationId(), List.of())) {
+                if (destinationId.equals(flight.destinationId())) {
+                    top.offer(2, cost, transfer, flight, null);
+                }
+            }
+        }
+        if (constraints.allowsAfterTransfers()) {
+            for (var flight : flightsFromOrigin) {
+                for (var transfer : groundByOrigin.getOrDefault(flight.destinationId(), List.of())) {
+                    if (destinationId.equals(transfer.destinationId())) {
+                        top.offer(2, ranking.groundCost(transfer.type()), null, flight, transfer);
+                    }
+                }
+            }
+        }
+        if (top.isFull() || !constraints.allowsTwoTransfers()) {
+            return top.toRoutes();
+        }
+
+        for (var beforeTransfer : groundFromOrigin) {
+            int beforeCost = ranking.groundCost(beforeTransfer.type());
+            // An after-flight transfer costs at least 0, so this is a lower bound for the whole subtree
+            if (top.rejects(3, beforeCost)) {
+                continue;
+            }
+            for (var flight : flightsByOrigin.getOrDefault(beforeTransfer.destinationId(), List.of())) {
+                for (var afterTransfer : groundByOrigin.getOrDefault(flight.destinationId(), List.of())) {
+                    if (destinationId.equals(afterTransfer.destinationId())) {
+                        top.offer(3, beforeCost + ranking.groundCost(afterTransfer.type()),
+                                beforeTransfer, flight, afterTransfer);
+                    }
+                }
+            }
+        }
+        return top.toRoutes();
+    }
+
+    /**
+     * Counts the routes from the origin to the destination arithmetically, without visiting them.
+     *
+     * <p>Transfers are grouped by the airport they connect to, so each pattern is a sum of products of
+     * counts: {@code |flights(o,d)|}, {@code Σ |before(x)| × |flights(x,d)|}, {@code Σ |flights(o,y)| × |after(y)|}
+     * and {@code Σ |before(x)| × |flights(x,y)| × |after(y)|} over airport pairs.
+     */
+    int countBetween(Long originId, Long destinationId, RouteConstraints constraints) {
+        var before = constraints.allowsBeforeTransfers()
+                ? countByAirport(groundByOrigin.getOrDefault(originId, List.of()), RouteLeg::destinationId)
+                : Map.<Long, Integer>of();
+        var after = constraints.allowsAfterTransfers()
+                ? countByAirport(groundByDestination.getOrDefault(destinationId, List.of()), RouteLeg::originId)
+                : Map.<Long, Integer>of();
+
+        long count = flightCount(originId, destinationId);
+        for (var departure : before.entrySet()) {
+            count += (long) departure.getValue() * flightCount(departure.getKey(), destinationId);
+        }
+        for (var arrival : after.entrySet()) {
+            count += (long) flightCount(originId, arrival.getKey()) * arrival.getValue();
+        }
+        if (constraints.allowsTwoTransfers()) {
+            for (var departure : before.entrySet()) {
+                var flightsFromAirport = flightCounts.getOrDefault(departure.getKey(), Map.of());
+                for (var arrival : after.entrySet()) {
+                    count += (long) departure.getValue() * flightsFromAirport.getOrDefault(arrival.getKey(), 0) * arrival.getValue();
+                }
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private int flightCount(Long originId, Long destinationId) {
+        return flightCounts.getOrDefault(originId, Map.of()).getOrDefault(destinationId, 0);
+    }
+
+    private static Map<Long, Integer> countByAirport(List<RouteLeg> transfers, Function<RouteLeg, Long> airport) {
+        var counts = new HashMap<Long, Integer>();
+        for (var transfer : transfers) {
+            counts.merge(airport.apply(transfer), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns every route from the origin grouped by final destination, in pattern order.
+     */
+    Map<Long, List<RouteDTO>> routesFrom(Long originId) {
+        return routesFrom(originId, RouteEnumerationPool.sequential());
+    }
+
+    Map<Long, List<RouteDTO>> routesFrom(Long originId, RouteEnumerationPool pool) {
+        var routesByDestination = new LinkedHashMap<Long, List<RouteDTO>>();
+        for (var route : collectRoutes(originId, destinationId -> true, RouteConstraints.none(), pool)) {
+            var segments = route.getSegments();
+            routesByDestination
+                    .computeIfAbsent(segments.get(segments.size() - 1).to().getId(), id -> new ArrayList<>())
+                    .add(route);
+        }
+        return routesByDestination;
+    }
+
+    /**
+     * Counts routes from the origin per final destination without building any segments.
+     * The value holds the last leg of a route to each destination, giving callers
+     * access to the destination location without a lookup.
+     */
+    Map<Long, RouteCount> routeCountsFrom(Long originId) {
+        var counts = new LinkedHashMap<Long, RouteCount>();
+        enumerate(originId, destinationId -> true,
+                (last, before, flight, after) -> counts
+                        .computeIfAbsent(last.destinationId(), id -> new RouteCount(last))
+                        .increment());
+        return counts;
+    }
+
+    /**
+     * Locations with at least one outgoing leg, i.e. every origin that can start a route.
+     */
+    Set<Long> origins() {
+        var origins = new HashSet<>(flightsByOrigin.keySet());
+        origins.addAll(groundByOrigin.keySet());
+        return origins;
+    }
+
+    /**
+     * Origins that can start a route whose flight departs from the given airport:
+     * the airport itself and every location with a ground transfer into it.
+     */
+    Set<Long> originsDepartingVia(Long airportId) {
+        var origins = new HashSet<Long>();
+        origins.add(airportId);
+        for (var transfer : groundByDestination.getOrDefault(airportId, List.of())) {
+            origins.add(transfer.originId());
+        }
+        return origins;
+    }
+
+    /**
+     * Destinations that can end a route whose flight lands at the given airport:
+     * the airport itself and every location with a ground transfer out of it.
+     */
+    Set<Long> destinationsArrivingVia(Long airportId) {
+        var destinations = new HashSet<Long>();
+        destinations.add(airportId);
+        for (var transfer : groundByOrigin.getOrDefault(airportId, List.of())) {
+            destinations.add(transfer.destinationId());
+        }
+        return destinations;
+    }
+
+    /**
+     * Origins of flights landing at the given airport.
+     */
+    Set<Long> flightOriginsInto(Long airportId) {
+        var origins = new HashSet<Long>();
+        for (var flight : flightsByDestination.getOrDefault(airportId, List.of())) {
+            origins.add(flight.originId());
+        }
+        return origins;
+    }
+
+    /**
+     * Destinations of flights departing from the given airport.
+     */
+    Set<Long> flightDestinationsFrom(Long airportId) {
+        var destinations = new HashSet<Long>();
+        for (var flight : flightsByOrigin.getOrDefault(airportId, List.of())) {
+            destinations.add(flight.destinationId());
+        }
+        return destinations;
+    }
+
+    /**
+     * Walks all four route patterns from the origin, reporting each combination whose
+     * final location passes the destination filter.
+     */
+    private void enumerate(Long originId, Predicate<Long> destinationFilter, RouteVisitor visitor) {
+        enumerateUpToOneTransfer(originId, destinationFilter, RouteConstraints.none(), visitor);
+        enumerateTwoTransfers(transferHops(originId), destinationFilter, visitor);
+    }
+
+    /**
+     * Builds the routes of all four patterns in order; the two-transfer pattern, the only one that
+     * grows with the product of three fan-outs, is handed to {@code pool} one before-flight hop at a time.
+     */
+    private List<RouteDTO> collectRoutes(Long originId, Predicate<Long> destinationFilter,
+                                         RouteConstraints constraints, RouteEnumerationPool pool) {
+        var routes = new ArrayList<RouteDTO>();
+        enumerateUpToOneTransfer(originId, destinationFilter, constraints,
+                (last, before, flight, after) -> routes.add(toRoute(before, flight, after)));
+        if (!constraints.allowsTwoTransfers()) {
+            return routes;
+        }
+        routes.addAll(pool.map(transferHops(originId),
+                hop -> groundByOrigin.getOrDefault(hop.flight().destinationId(), List.of()).size(),
+                hops -> {
+                    var chunk = new ArrayList<RouteDTO>();
+                    enumerateTwoTransfers(hops, destinationFilter,
+                            (last, before, flight, after) -> chunk.add(toRoute(before, flight, after)));
+                    return chunk;
+                }));
+        return routes;
+    }
+
+    private void enumerateUpToOneTransfer(Long originId, Predicate<Long> destinationFilter,
+                                          RouteConstraints constraints, RouteVisitor visitor) {
+        var flightsFromOrigin = flightsByOrigin.getOrDefault(originId, List.of());
+        var groundFromOrigin = constraints.allowsBeforeTransfers()
+                ? groundByOrigin.getOrDefault(originId, List.<RouteLeg>of())
+                : List.<RouteLeg>of();
+
+        // Pattern 1: Direct flight (Origin -> Destination)
+        for (var flight : flightsFromOrigin) {
+            if (destinationFilter.test(flight.destinationId())) {
+                visitor.visit(flight, null, flight, null);
+            }
+        }
+
+        // Pattern 2: Before flight transfer + Flight (Origin -> Airport -> Destination)
+        for (var transfer : groundFromOrigin) {
+            for (var flight : flightsByOrigin.getOrDefault(transfer.destinationId(), List.of())) {
+                if (destinationFilter.test(flight.destinationId())) {
+                    visitor.visit(flight, transfer, flight, null);
+                }
+            }
+        }
+
+        // Pattern 3: Flight + After flight transfer (Origin -> Airport -> Destination)
+        if (!constraints.allowsAfterTransfers()) {
+            return;
+        }
+        for (var flight : flightsFromOrigin) {
+            for (var transfer : groundByOrigin.getOrDefault(flight.destinationId(), List.of())) {
+                if (destinationFilter.test(transfer.destinationId())) {
+                    visitor.visit(transfer, null, flight, transfer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Before-flight transfer and flight pairs from the origin, in pattern 4 order.
+     */
+    private List<TransferHop> transferHops(Long originId) {
+        var hops = new ArrayList<TransferHop>();
+        for (var beforeTransfer : groundByOrigin.getOrDefault(originId, List.of())) {
+            for (var flight : flightsByOrigin.getOrDefault(beforeTransfer.destinationId(), List.of())) {
+                hops.add(new TransferHop(beforeTransfer, flight));
+            }
+        }
+        return hops;
+    }
+
+    // Pattern 4: Before + Flight + After (Origin -> Airport1 -> Airport2 -> Destination)
+    private void enumerateTwoTransfers(List<TransferHop> hops, Predicate<Long> destinationFilter, RouteVisitor visitor) {
+        for (var hop : hops) {
+            for (var afterTransfer : groundByOrigin.getOrDefault(hop.flight().destinationId(), List.of())) {
+                if (destinationFilter.test(afterTransfer.destinationId())) {
+                    visitor.visit(afterTransfer, hop.beforeTransfer(), hop.flight(), afterTransfer);
+                }
+            }
+        }
+    }
+
+    private RouteDTO toRoute(RouteLeg before, RouteLeg flight, RouteLeg after) {
+        var segments = new ArrayList<TransportationSegmentDTO>((before != null ? 1 : 0) + 1 + (after != null ? 1 : 0));
+        if (before != null) {
+            segments.add(beforeSegments.get(before.transportationId()));
+        }
+        segments.add(flightSegments.get(flight.transportationId()));
+        if (after != null) {
+            segments.add(afterSegments.get(after.transportationId()));
+        }
+        return new RouteDTO(segments);
+    }
+
+    private static TransportationSegmentDTO createSegment(RouteLeg leg, SegmentType segmentType) {
+        return new TransportationSegmentDTO(
+                leg.transportationId(),
+                leg.type(),
+                leg.origin(),
+                leg.destination(),
+                segmentType
+        );
+    }
+
+    private record TransferHop(RouteLeg beforeTransfer, RouteLeg flight) {
+    }
+
+    /**
+     * Bounded max-heap of route candidates ordered by segment count, ranking cost and discovery order.
+     */
+    private final class TopRoutes {
+
+        private static final Comparator<Candidate> ORDER = Comparator.comparingInt(Candidate::segments)
+                .thenComparingInt(Candidate::cost)
+                .thenComparingLong(Candidate::sequence);
+
+        private final int limit;
+        private final PriorityQueue<Candidate> heap;
+        private long sequence;
+
+        private TopRoutes(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64) + 1, ORDER.reversed());
+        }
+
+        private boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        /**
+         * Whether a candidate of this length and cost would lose to every kept route; later candidates lose ties.
+         */
+        private boolean rejects(int segments, int cost) {
+            if (!isFull()) {
+                return false;
+            }
+            var worst = heap.peek();
+            return segments > worst.segments() || (segments == worst.segments() && cost >= worst.cost());
+        }
+
+        private void offer(int segments, int cost, RouteLeg before, RouteLeg flight, RouteLeg after) {
+            if (rejects(segments, cost)) {
+                return;
+            }
+            heap.add(new Candidate(segments, cost, sequence++, before, flight, after));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        private List<RouteDTO> toRoutes() {
+            var candidates = new ArrayList<>(heap);
+            candidates.sort(ORDER);
+            var routes = new ArrayList<RouteDTO>(candidates.size());
+            for (var candidate : candidates) {
+                routes.add(toRoute(candidate.before(), candidate.flight(), candidate.after()));
+            }
+            return routes;
+        }
+    }
+
+    private record Candidate(int segments, int cost, long sequence, RouteLeg before, RouteLeg flight, RouteLeg after) {
+    }
+
+    @FunctionalInterface
+    private interface RouteVisitor {
+        /**
+         * @param last the leg arriving at the final destination
+         */
+        void visit(RouteLeg last, RouteLeg before, RouteLeg flight, RouteLeg after);
+    }
+
+    static final class RouteCount {
+        private final RouteLeg last;
+        private int count;
+
+        private RouteCount(RouteLeg last) {
+            this.last = last;
+        }
+
+        private void increment() {
+            count++;
+        }
+
+        RouteLeg last() {
+            return last;
+        }
+
+        int count() {
+            return count;
+        }
+    }
+}
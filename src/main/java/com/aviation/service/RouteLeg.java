@@ -0,0 +1,55 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.TransportationType;
+import com.aviation.repository.TransportationLegRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened, immutable view of a single transportation as used by the route search.
+ * Decouples route enumeration from managed JPA entities.
+ */
+public record RouteLeg(
+        Long transportationId,
+        TransportationType type,
+        LocationDTO origin,
+        LocationDTO destination
+) {
+
+    /**
+     * Converts projected rows, taking every location view from the registry, where a single instance
+     * per location is shared by all legs.
+     */
+    public static List<RouteLeg> fromRows(List<TransportationLegRow> rows, LocationRegistry locations) {
+        var legs = new ArrayList<RouteLeg>(rows.size());
+        for (var row : rows) {
+            legs.add(new RouteLeg(row.transportationId(), row.type(),
+                    locations.require(row.originId()), locations.require(row.destinationId())));
+        }
+        return legs;
+    }
+
+    /**
+     * Returns this leg with its location views replaced by the shared instances in {@code locations},
+     * registering its own views for locations not seen yet. Returns {@code this} when nothing changes.
+     */
+    RouteLeg internLocations(Map<Long, LocationDTO> locations) {
+        var sharedOrigin = locations.computeIfAbsent(originId(), id -> origin);
+        var sharedDestination = locations.computeIfAbsent(destinationId(), id -> destination);
+        if (sharedOrigin == origin && sharedDestination == destination) {
+            return this;
+        }
+        return new RouteLeg(transportationId, type, sharedOrigin, sharedDestination);
+    }
+
+    public Long originId() {
+        return origin.getId();
+    }
+
+    public Long destinationId() {
+        return destination.getId();
+    }
+}
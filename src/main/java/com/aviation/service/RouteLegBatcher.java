@@ -0,0 +1,169 @@
+package com.aviation.service;
+
+import com.aviation.repository.TransportationLegRow;
+import com.aviation.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the ground leg lookups of concurrent route searches on the same weekday for a short
+ * window and answers them with a single {@code IN}-list query.
+ *
+ * <p>The first search to arrive leads the batch: it waits for the window to elapse (or the batch to
+ * fill up), runs the query on its own thread and transaction, and hands every other search the legs
+ * departing its origin and arriving at its destination. No extra threads or connections are needed.
+ * Legs are handed out as projected rows, as {@link RouteLegCache} stores them.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteLegBatcher {
+
+    private final TransportationRepository transportationRepository;
+
+    @Value("${aviation.routes.batch.window:2ms}")
+    private Duration window;
+
+    @Value("${aviation.routes.batch.max-size:200}")
+    private int maxSize;
+
+    private final Map<Integer, Batch> pending = new HashMap<>();
+
+    /**
+     * Loads the ground legs departing {@code originId} and arriving at {@code destinationId} on the
+     * given day, batched with concurrent lookups. Either id may be {@code null} when that side is not needed.
+     */
+    public GroundRows load(int dayOfWeek, Long originId, Long destinationId) {
+        var request = new Request(originId, destinationId, new CompletableFuture<>());
+        Batch batch;
+        boolean leader;
+        synchronized (pending) {
+            batch = pending.get(dayOfWeek);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch(dayOfWeek);
+                pending.put(dayOfWeek, batch);
+            }
+            batch.add(request);
+            if (batch.requests.size() >= maxSize) {
+                pending.remove(dayOfWeek);
+                batch.full.countDown();
+            }
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            synchronized (pending) {
+                pending.remove(dayOfWeek, batch);
+            }
+            flush(batch);
+        }
+
+        try {
+            return request.result().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(Batch batch) {
+        try {
+            var departing = new HashMap<Long, List<TransportationLegRow>>();
+            var arriving = new HashMap<Long, List<TransportationLegRow>>();
+            var legs = query(batch);
+            for (var leg : legs) {
+                departing.computeIfAbsent(leg.originId(), id -> new ArrayList<>()).add(leg);
+                arriving.computeIfAbsent(leg.destinationId(), id -> new ArrayList<>()).add(leg);
+            }
+            for (var request : batch.requests) {
+                request.result().complete(new GroundRows(
+                        select(departing, request.originId()),
+                        select(arriving, request.destinationId())));
+            }
+        } catch (Throwable ex) {
+            // Errors too: a follower whose future is never completed would block forever
+            batch.requests.forEach(request -> request.result().completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * Only the sides some search asked for go into the query, so no {@code IN} list is ever empty.
+     */
+    private List<TransportationLegRow> query(Batch batch) {
+        if (batch.destinationIds.isEmpty()) {
+            return batch.originIds.isEmpty() ? List.of()
+                    : transportationRepository.findGroundLegsDepartingOperatingOn(batch.originIds, batch.dayOfWeek);
+        }
+        if (batch.originIds.isEmpty()) {
+            return transportationRepository.findGroundLegsArrivingOperatingOn(batch.destinationIds, batch.dayOfWeek);
+        }
+        return transportationRepository.findGroundLegsTouchingOperatingOn(
+                batch.originIds, batch.destinationIds, batch.dayOfWeek);
+    }
+
+    private static List<TransportationLegRow> select(Map<Long, List<TransportationLegRow>> legsByLocation, Long locationId) {
+        if (locationId == null) {
+            return null;
+        }
+        return new ArrayList<>(legsByLocation.getOrDefault(locationId, List.of()));
+    }
+
+    /**
+     * Ground transfer rows departing an origin and arriving at a destination; {@code null} for a side not asked for.
+     */
+    public record GroundRows(List<TransportationLegRow> departing, List<TransportationLegRow> arriving) {
+    }
+
+    private record Request(Long originId, Long destinationId, CompletableFuture<GroundRows> result) {
+    }
+
+    /**
+     * Lookups collected for one day. Only mutated under the {@code pending} lock, and only while it is
+     * still registered there, so the leader sees a stable batch once it has removed it.
+     */
+    private static final class Batch {
+
+        private final int dayOfWeek;
+        private final Set<Long> originIds = new HashSet<>();
+        private final Set<Long> destinationIds = new HashSet<>();
+        private final List<Request> requests = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private Batch(int dayOfWeek) {
+            this.dayOfWeek = dayOfWeek;
+        }
+
+        private void add(Request request) {
+            if (request.originId() != null) {
+                originIds.add(request.originId());
+            }
+            if (request.destinationId() != null) {
+                destinationIds.add(request.destinationId());
+            }
+            requests.add(request);
+        }
+    }
+}
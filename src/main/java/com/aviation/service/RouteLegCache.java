@@ -0,0 +1,105 @@
+package com.aviation.service;
+
+import com.aviation.repository.TransportationLegRow;
+import com.aviation.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Partial route search results, cached as separate tiers in the {@code routeLegs} cache and composed
+ * by {@link RouteService} at query time:
+ * <ul>
+ *   <li>the flights operating on a weekday, shared by every search on that day</li>
+ *   <li>the ground transfers departing an origin on a weekday (before-flight candidates)</li>
+ *   <li>the ground transfers arriving at a destination on a weekday (after-flight candidates)</li>
+ * </ul>
+ * A search for a pair never seen before reuses the origin and destination tiers already loaded
+ * for other pairs, so only genuinely new locations reach the database. The flight tier is loaded
+ * once per day and shared; concurrent ground tier misses are batched by {@link RouteLegBatcher}.
+ * Tiers hold every leg of the weekday whatever its seasonal validity, so all seasons share them;
+ * {@link RouteService} drops the legs out of season on the searched date.
+ * Entries are evicted by {@link RouteCacheInvalidator}.
+ *
+ * <p>Tiers hold projected {@link TransportationLegRow}s, which carry location ids only; location details are
+ * taken from {@link LocationRegistry} after every read, so a renamed location never invalidates a tier.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteLegCache {
+
+    private final TransportationRepository transportationRepository;
+    private final LocationRegistry locationRegistry;
+    private final RouteLegBatcher batcher;
+    private final CacheManager cacheManager;
+
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<RouteLeg> flightsOn(int dayOfWeek) {
+        var cache = cacheManager.getCache("routeLegs");
+        List<TransportationLegRow> rows = cache != null
+                ? cache.get(flightsKey(dayOfWeek), () -> transportationRepository.findFlightLegsOperatingOn(dayOfWeek))
+                : transportationRepository.findFlightLegsOperatingOn(dayOfWeek);
+        return RouteLeg.fromRows(rows, locationRegistry);
+    }
+
+    /**
+     * Ground transfers departing the origin and arriving at the destination on the given day.
+     * Tiers missing from the cache are loaded through {@link RouteLegBatcher}, together with the
+     * misses of concurrent searches on the same day. A {@code null} id skips that tier, which is
+     * then returned empty.
+     */
+    @SuppressWarnings("unchecked")
+    public GroundLegs groundLegs(Long originId, Long destinationId, int dayOfWeek) {
+        var cache = cacheManager.getCache("routeLegs");
+        var fromKey = groundFromKey(originId, dayOfWeek);
+        var intoKey = groundIntoKey(destinationId, dayOfWeek);
+        List<TransportationLegRow> departing = originId == null ? List.of() : cache != null ? cache.get(fromKey, List.class) : null;
+        List<TransportationLegRow> arriving = destinationId == null ? List.of() : cache != null ? cache.get(intoKey, List.class) : null;
+        if (departing != null && arriving != null) {
+            return groundLegs(departing, arriving);
+        }
+
+        var loaded = batcher.load(dayOfWeek,
+                departing == null ? originId : null,
+                arriving == null ? destinationId : null);
+        if (departing == null) {
+            departing = loaded.departing();
+            if (cache != null) {
+                cache.put(fromKey, departing);
+            }
+        }
+        if (arriving == null) {
+            arriving = loaded.arriving();
+            if (cache != null) {
+                cache.put(intoKey, arriving);
+            }
+        }
+        return groundLegs(departing, arriving);
+    }
+
+    private GroundLegs groundLegs(List<TransportationLegRow> departing, List<TransportationLegRow> arriving) {
+        return new GroundLegs(RouteLeg.fromRows(departing, locationRegistry), RouteLeg.fromRows(arriving, locationRegistry));
+    }
+
+    public static String flightsKey(int dayOfWeek) {
+        return "flight-rows:" + dayOfWeek;
+    }
+
+    public static String groundFromKey(Long originId, int dayOfWeek) {
+        return "ground-rows-from:" + originId + ":" + dayOfWeek;
+    }
+
+    public static String groundIntoKey(Long destinationId, int dayOfWeek) {
+        return "ground-rows-into:" + destinationId + ":" + dayOfWeek;
+    }
+
+    /**
+     * Ground transfers around a search: those leaving its origin and those reaching its destination.
+     */
+    public record GroundLegs(List<RouteLeg> departing, List<RouteLeg> arriving) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteDTO;
+import com.aviation.entity.TransportationType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Order of ranked route results: fewest segments first, then by the ground modes used, cheapest first.
+ * A ground leg costs its position in {@code groundPreference}; unlisted modes cost more than any listed
+ * one and flights cost nothing. With no preference every route of the same length ties, and ties keep
+ * pattern order.
+ */
+public record RouteRanking(List<TransportationType> groundPreference) {
+
+    private static final RouteRanking FEWEST_SEGMENTS = new RouteRanking(List.of());
+
+    public static RouteRanking of(List<TransportationType> groundPreference) {
+        if (groundPreference == null || groundPreference.isEmpty()) {
+            return FEWEST_SEGMENTS;
+        }
+        return new RouteRanking(groundPreference.stream().distinct().toList());
+    }
+
+    public int groundCost(TransportationType type) {
+        if (!type.isGroundTransport()) {
+            return 0;
+        }
+        int position = groundPreference.indexOf(type);
+        return position >= 0 ? position : groundPreference.size();
+    }
+
+    /**
+     * Ranking order for routes built without it, e.g. those served by {@link MaterializedRouteIndex}.
+     * Stable sorts keep pattern order among ties.
+     */
+    public Comparator<RouteDTO> comparator() {
+        return Comparator.<RouteDTO>comparingInt(route -> route.getSegments().size())
+                .thenComparingInt(route -> {
+                    int cost = 0;
+                    for (var segment : route.getSegments()) {
+                        cost += groundCost(segment.type());
+                    }
+                    return cost;
+                });
+    }
+
+    /**
+     * Cache key discriminator for the top {@code limit} routes under this ranking, e.g. {@code top=10;prefer=SUBWAY,BUS};
+     * {@link Integer#MAX_VALUE} stands for every route, ranked.
+     */
+    public String variant(int limit) {
+        var variant = new StringBuilder("top=").append(limit == Integer.MAX_VALUE ? "all" : String.valueOf(limit));
+        if (!groundPreference.isEmpty()) {
+            var joiner = new StringJoiner(",");
+            groundPreference.forEach(type -> joiner.add(type.name()));
+            variant.append(";prefer=").append(joiner);
+        }
+        return variant.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.repository.TransportationLegRow;
+import com.aviation.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-day-of-week reachability index answering "is there any route from A to B on this day?"
+ * without touching the database or the route cache.
+ *
+ * <p>For each day, every location is assigned a dense index and every origin gets a {@link BitSet}
+ * of the destinations it can reach under the 1–3 segment rules. Bitsets are composed per hop:
+ * <ul>
+ *   <li>{@code flightReach(a)} = flight destinations of airport {@code a} plus their after-flight transfers</li>
+ *   <li>{@code reach(o)} = {@code flightReach(o)} ∪ {@code flightReach(x)} for every before-flight transfer {@code o → x}</li>
+ * </ul>
+ *
+ * <p>Days are rebuilt lazily: a committed transportation change only marks the days it operates on
+ * as stale, and the next query for such a day rebuilds it from a single DB round-trip. With seasonal
+ * transportations a day has one snapshot per {@link SchedulePeriod} in use, leaving out-of-season legs out.
+ *
+ * <p>Staleness is tracked with a {@link CacheGenerations} counter per day, so a change committed on any
+ * instance marks the day stale on all of them; a negative answer is never served from a snapshot older
+ * than the last change its instance has heard of.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteReachabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteReachabilityIndex.class);
+
+    // Bounds the snapshots kept when many seasons are queried; each one is rebuilt on demand
+    private static final int MAX_SNAPSHOTS = 64;
+
+    private final TransportationRepository transportationRepository;
+    private final LocationRegistry locationRegistry;
+    private final TransportationValidityIndex validityIndex;
+    private final CacheGenerations cacheGenerations;
+
+    // Keyed by day of week and schedule period, e.g. "1@2025-06-01..2025-09-30"
+    private final Map<String, DaySnapshot> snapshots = new ConcurrentHashMap<>();
+    // Index 1..7 (Monday..Sunday); slot 0 unused
+    private final Object[] dayLocks = {new Object(), new Object(), new Object(), new Object(),
+            new Object(), new Object(), new Object(), new Object()};
+
+    /**
+     * Returns {@code true} only when both locations exist and the index proves no route connects them.
+     * Unknown locations yield {@code false} so the regular search path can report them.
+     */
+    public boolean isKnownUnreachable(Long originId, Long destinationId, LocalDate date) {
+        return locationRegistry.contains(originId) && locationRegistry.contains(destinationId)
+                && !isReachable(originId, destinationId, date);
+    }
+
+    public boolean isReachable(Long originId, Long destinationId, LocalDate date) {
+        var snapshot = snapshotFor(date);
+        var reachable = snapshot.reachableFrom(originId);
+        var destinationIndex = snapshot.indexById().get(destinationId);
+        return reachable != null && destinationIndex != null && reachable.get(destinationIndex);
+    }
+
+    /**
+     * Counts the distinct destinations reachable from the origin, excluding the origin itself.
+     */
+    public int countReachable(Long originId, LocalDate date) {
+        var snapshot = snapshotFor(date);
+        var reachable = snapshot.reachableFrom(originId);
+        if (reachable == null) {
+            return 0;
+        }
+        var originIndex = snapshot.indexById().get(originId);
+        return reachable.cardinality() - (reachable.get(originIndex) ? 1 : 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransportationChanged(TransportationChangedEvent event) {
+        for (int day : event.affectedDays()) {
+            cacheGenerations.advance(generationName(day));
+        }
+        log.debug("Reachability index marked stale for days {}", event.affectedDays());
+    }
+
+    private DaySnapshot snapshotFor(LocalDate date) {
+        int dayOfWeek = date.getDayOfWeek().getValue();
+        var period = validityIndex.periodOf(date);
+        var key = dayOfWeek + "@" + period.key();
+        var snapshot = snapshots.get(key);
+        long generation = cacheGenerations.current(generationName(dayOfWeek));
+        if (snapshot != null && snapshot.generation() == generation) {
+            return snapshot;
+        }
+        synchronized (dayLocks[dayOfWeek]) {
+            snapshot = snapshots.get(key);
+            if (snapshot == null || snapshot.generation() != generation) {
+                snapshot = build(dayOfWeek, period, generation);
+                if (snapshots.size() >= MAX_SNAPSHOTS) {
+                    snapshots.clear();
+                }
+                snapshots.put(key, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    private DaySnapshot build(int dayOfWeek, SchedulePeriod period, long generation) {
+        long start = System.nanoTime();
+        List<TransportationLegRow> legs = transportationRepository.findLegsOperatingOn(dayOfWeek);
+        if (!period.inactiveIds().isEmpty()) {
+            legs = legs.stream().filter(leg -> period.isActive(leg.transportationId())).toList();
+        }
+
+        var indexById = new HashMap<Long, Integer>();
+        for (var leg : legs) {
+            indexById.computeIfAbsent(leg.originId(), id -> indexById.size());
+            indexById.computeIfAbsent(leg.destinationId(), id -> indexById.size());
+        }
+        int size = indexById.size();
+
+        var groundReach = new BitSet[size];
+        for (var leg : legs) {
+            if (leg.type() != TransportationType.FLIGHT) {
+                bitsAt(groundReach, indexById.get(leg.originId()))
+                        .set(indexById.get(leg.destinationId()));
+            }
+        }
+
+        var flightReach = new BitSet[size];
+        for (var leg : legs) {
+            if (leg.type() == TransportationType.FLIGHT) {
+                int airport = indexById.get(leg.destinationId());
+                var bits = bitsAt(flightReach, indexById.get(leg.originId()));
+                bits.set(airport);
+                if (groundReach[airport] != null) {
+                    bits.or(groundReach[airport]);
+                }
+            }
+        }
+
+        var reach = new BitSet[size];
+        for (int origin = 0; origin < size; origin++) {
+            if (flightReach[origin] != null) {
+                bitsAt(reach, origin).or(flightReach[origin]);
+            }
+            var transfers = groundReach[origin];
+            if (transfers != null) {
+                for (int airport = transfers.nextSetBit(0); airport >= 0; airport = transfers.nextSetBit(airport + 1)) {
+                    if (flightReach[airport] != null) {
+                        bitsAt(reach, origin).or(flightReach[airport]);
+                    }
+                }
+            }
+        }
+
+        log.debug("Reachability index built for day {}: {} locations, {} legs in {} µs",
+                dayOfWeek, size, legs.size(), (System.nanoTime() - start) / 1_000);
+        return new DaySnapshot(generation, indexById, reach);
+    }
+
+    static String generationName(int dayOfWeek) {
+        return "routeReachability:" + dayOfWeek;
+    }
+
+    private static BitSet bitsAt(BitSet[] bitsets, int index) {
+        if (bitsets[index] == null) {
+            bitsets[index] = new BitSet();
+        }
+        return bitsets[index];
+    }
+
+    record DaySnapshot(long generation, Map<Long, Integer> indexById, BitSet[] reach) {
+
+        BitSet reachableFrom(Long originId) {
+            var originIndex = indexById.get(originId);
+            return originIndex != null ? reach[originIndex] : null;
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.aviation.service;
 
 import com.aviation.dto.LocationDTO;
+import com.aviation.dto.ReachableDestinationDTO;
+import com.aviation.dto.RouteCountRequest;
 import com.aviation.dto.RouteDTO;
-import com.aviation.entity.Location;
-import com.aviation.entity.SegmentType;
-import com.aviation.entity.Transportation;
-import com.aviation.entity.TransportationType;
-import com.aviation.repository.LocationRepository;
+import com.aviation.exception.LocationNotFoundException;
 import com.aviation.repository.TransportationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
@@ -15,6 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,16 +26,32 @@ import java.util.stream.Collectors;
 public class RouteService {
     
     private final TransportationRepository transportationRepository;
-    private final LocationRepository locationRepository;
+    private final LocationRegistry locationRegistry;
+    private final RouteReachabilityIndex reachabilityIndex;
+    private final MaterializedRouteIndex materializedRouteIndex;
+    private final RouteLegCache legCache;
+    private final RouteEnumerationPool enumerationPool;
+    private final TransportationValidityIndex validityIndex;
     
     /**
      * Finds all valid routes between two locations on a specific date.
      *
      * <p>Optimizations applied:
      * <ul>
-     *   <li>Single DB query instead of 3 separate queries</li>
+     *   <li>Legs are composed from the cached day flight, origin and destination tiers of
+     *       {@link RouteLegCache}, so pairs sharing an origin or destination share the DB work</li>
      *   <li>HashMap-based indexing for O(1) lookups instead of nested linear scans</li>
-     *   <li>In-memory partitioning of flights vs ground transport</li>
+     *   <li>In-memory partitioning of flights vs ground transport (see {@link RouteGraph})</li>
+     *   <li>Pairs proven unreachable by {@link RouteReachabilityIndex} are answered before the cache
+     *       lookup and without any DB query</li>
+     *   <li>When {@link MaterializedRouteIndex} is enabled, every search is a pair of map lookups</li>
+     *   <li>Empty results and unknown locations are remembered briefly in the {@code routeMisses} cache</li>
+     *   <li>Locations are checked against the in-memory {@link LocationRegistry} rather than the DB</li>
+     *   <li>Large two-transfer enumerations are split across {@link RouteEnumerationPool}</li>
+     *   <li>{@link RouteConstraints} skip ground tiers, legs and patterns they exclude; each combination
+     *       of constraints is cached under its own key variant</li>
+     *   <li>Out-of-season legs are dropped in memory via {@link TransportationValidityIndex}, and entries are
+     *       keyed by schedule date, so every date of a season on the same weekday shares them</li>
      * </ul>
      *
      * <p>Supports 4 route patterns:
@@ -45,114 +63,239 @@ public class RouteService {
      * </ol>
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "routes", key = "'route:' + #originId + ':' + #destinationId + ':' + #date")
-    public List<RouteDTO> findRoutes(Long originId, Long destinationId, LocalDate date) {
-        locationRepository.findById(originId)
-                .orElseThrow(() -> new RuntimeException("Origin location not found"));
+    @Cacheable(value = "routes",
+            key = "T(com.aviation.service.RouteCacheKey).route(#originId, #destinationId, @transportationValidityIndex.scheduleDate(#date))"
+                    + ".withVariant(#constraints.variant())",
+            sync = true,
+            condition = "!@materializedRouteIndex.serving"
+                    + " and !@routeReachabilityIndex.isKnownUnreachable(#originId, #destinationId, #date)")
+    public List<RouteDTO> findRoutes(Long originId, Long destinationId, LocalDate date, RouteConstraints constraints) {
+        if (materializedRouteIndex.isServing()) {
+            requireKnownLocation(originId, "Origin location not found");
+            requireKnownLocation(destinationId, "Destination location not found");
+            var routes = materializedRoutes(originId, destinationId, date);
+            return constraints.isUnconstrained() ? routes : routes.stream().filter(constraints::allows).collect(Collectors.toList());
+        }
         
-        locationRepository.findById(destinationId)
-                .orElseThrow(() -> new RuntimeException("Destination location not found"));
+        var graph = loadGraph(originId, destinationId, date, constraints);
+        if (graph == null) {
+            return new ArrayList<>();
+        }
         
-        var dayOfWeek = date.getDayOfWeek().getValue(); // 1 = Monday, 7 = Sunday
+        return graph.routesBetween(originId, destinationId, constraints, enumerationPool);
+    }
+    
+    /**
+     * Finds the best {@code limit} routes under {@code ranking}: fewest segments first, then the preferred
+     * ground modes. Enumeration stops as soon as no remaining combination can enter the top {@code limit},
+     * so the cost follows the size of the answer rather than of the full result.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "routes",
+            key = "T(com.aviation.service.RouteCacheKey).route(#originId, #destinationId, @transportationValidityIndex.scheduleDate(#date))"
+                    + ".withVariant(#constraints.variant()).plusVariant(#ranking.variant(#limit))",
+            sync = true,
+            condition = "!@materializedRouteIndex.serving"
+                    + " and !@routeReachabilityIndex.isKnownUnreachable(#originId, #destinationId, #date)")
+    public List<RouteDTO> findTopRoutes(Long originId, Long destinationId, LocalDate date,
+                                        RouteConstraints constraints, RouteRanking ranking, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        if (materializedRouteIndex.isServing()) {
+            requireKnownLocation(originId, "Origin location not found");
+            requireKnownLocation(destinationId, "Destination location not found");
+            return materializedRoutes(originId, destinationId, date).stream()
+                    .filter(constraints::allows)
+                    .sorted(ranking.comparator())
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
         
-        // Single DB round-trip: fetch all relevant transportations for this route search
-        var allRelevant = transportationRepository.findAllRelevantForRoute(originId, destinationId, dayOfWeek);
+        var graph = loadGraph(originId, destinationId, date, constraints);
+        if (graph == null) {
+            return new ArrayList<>();
+        }
         
-        // Partition into flights and ground transport using in-memory classification
-        var flights = new ArrayList<Transportation>();
-        var nonFlightsFromOrigin = new ArrayList<Transportation>();
-        var nonFlightsToDestination = new ArrayList<Transportation>();
+        return graph.topRoutesBetween(originId, destinationId, constraints, ranking, limit);
+    }
+    
+    /**
+     * Counts the routes {@link #findRoutes} would return, arithmetically and without building them.
+     * Cached next to the full search under the same key with a {@code count} variant.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "routes",
+            key = "T(com.aviation.service.RouteCacheKey).route(#originId, #destinationId, @transportationValidityIndex.scheduleDate(#date))"
+                    + ".withVariant(#constraints.variant()).plusVariant('count')",
+            sync = true,
+            condition = "!@materializedRouteIndex.serving"
+                    + " and !@routeReachabilityIndex.isKnownUnreachable(#originId, #destinationId, #date)")
+    public int countRoutes(Long originId, Long destinationId, LocalDate date, RouteConstraints constraints) {
+        if (materializedRouteIndex.isServing()) {
+            return materializedCount(originId, destinationId, date, constraints);
+        }
         
-        for (var transport : allRelevant) {
-            if (transport.getTransportationType() == TransportationType.FLIGHT) {
-                flights.add(transport);
-            } else {
-                if (transport.getOriginLocation().getId().equals(originId)) {
-                    nonFlightsFromOrigin.add(transport);
-                }
-                if (transport.getDestinationLocation().getId().equals(destinationId)) {
-                    nonFlightsToDestination.add(transport);
-                }
+        var graph = loadGraph(originId, destinationId, date, constraints);
+        return graph == null ? 0 : graph.countBetween(originId, destinationId, constraints);
+    }
+    
+    /**
+     * Counts the routes {@link #findRoutes} would return for every pair, against a single graph of the day's
+     * whole network loaded in one DB round-trip. Pairs proven unreachable never load it.
+     */
+    @Transactional(readOnly = true)
+    public Map<RouteCountRequest.Pair, Integer> countRoutes(Collection<RouteCountRequest.Pair> pairs, LocalDate date,
+                                                            RouteConstraints constraints) {
+        var counts = new HashMap<RouteCountRequest.Pair, Integer>();
+        RouteGraph graph = null;
+        for (var pair : pairs) {
+            if (materializedRouteIndex.isServing()) {
+                counts.put(pair, materializedCount(pair.originId(), pair.destinationId(), date, constraints));
+                continue;
+            }
+            requireKnownLocation(pair.originId(), "Origin location not found");
+            requireKnownLocation(pair.destinationId(), "Destination location not found");
+            if (!constraints.allowsAnyRoute()
+                    || reachabilityIndex.isKnownUnreachable(pair.originId(), pair.destinationId(), date)) {
+                counts.put(pair, 0);
+                continue;
             }
+            if (graph == null) {
+                graph = dayGraph(date, constraints);
+            }
+            counts.put(pair, graph.countBetween(pair.originId(), pair.destinationId(), constraints));
         }
+        return counts;
+    }
+    
+    /**
+     * Finds every destination reachable from an origin on a specific date.
+     *
+     * <p>Loads the day's network once and enumerates all route patterns from the origin in a
+     * single traversal, replacing one {@link #findRoutes} call per candidate destination.
+     * Route counts are computed without building segments unless {@code includeRoutes} is set.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "routes",
+            key = "T(com.aviation.service.RouteCacheKey).reachable(#originId, @transportationValidityIndex.scheduleDate(#date), #includeRoutes)",
+            sync = true)
+    public List<ReachableDestinationDTO> findReachableDestinations(Long originId, LocalDate date, boolean includeRoutes) {
+        requireKnownLocation(originId, "Origin location not found");
         
-        // Build HashMap indexes for O(1) lookups (replaces nested linear iteration)
-        Map<Long, List<Transportation>> flightsByOrigin = flights.stream()
-                .collect(Collectors.groupingBy(t -> t.getOriginLocation().getId()));
-        
-        Map<Long, List<Transportation>> afterTransfersByAirport = nonFlightsToDestination.stream()
-                .collect(Collectors.groupingBy(t -> t.getOriginLocation().getId()));
+        var graph = dayGraph(date, RouteConstraints.none());
         
-        var allRoutes = new ArrayList<RouteDTO>();
+        var destinations = includeRoutes
+                ? graph.routesFrom(originId, enumerationPool).values().stream()
+                        .map(routes -> new ReachableDestinationDTO(finalStop(routes.get(0)), routes.size(), routes))
+                : graph.routeCountsFrom(originId).values().stream()
+                        .map(count -> new ReachableDestinationDTO(count.last().destination(), count.count(), null));
         
-        // Pattern 1: Direct flight (Origin -> Destination)
-        for (var flight : flightsByOrigin.getOrDefault(originId, List.of())) {
-            if (flight.getDestinationLocation().getId().equals(destinationId)) {
-                var route = new RouteDTO();
-                route.setSegments(List.of(createSegment(flight, SegmentType.FLIGHT)));
-                allRoutes.add(route);
-            }
+        // Round trips back to the origin are not destinations
+        return destinations
+                .filter(reachable -> !reachable.getDestination().getId().equals(originId))
+                .sorted(Comparator.comparing(reachable -> reachable.getDestination().getLocationCode()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Answers whether at least one route exists, straight from {@link RouteReachabilityIndex}.
+     */
+    public boolean hasRoutes(Long originId, Long destinationId, LocalDate date) {
+        requireKnownLocation(originId, "Origin location not found");
+        requireKnownLocation(destinationId, "Destination location not found");
+        return reachabilityIndex.isReachable(originId, destinationId, date);
+    }
+    
+    /**
+     * Counts the distinct destinations reachable from an origin, straight from {@link RouteReachabilityIndex}.
+     */
+    public int countReachableDestinations(Long originId, LocalDate date) {
+        requireKnownLocation(originId, "Origin location not found");
+        return reachabilityIndex.countReachable(originId, date);
+    }
+    
+    /**
+     * Validates both locations and composes the search graph from the cached leg tiers, or returns
+     * {@code null} when the pair is known to have no route or the constraints allow none.
+     */
+    private RouteGraph loadGraph(Long originId, Long destinationId, LocalDate date, RouteConstraints constraints) {
+        if (reachabilityIndex.isKnownUnreachable(originId, destinationId, date)) {
+            return null;
         }
         
-        // Pattern 2: Before flight transfer + Flight (Origin -> Airport -> Destination)
-        for (var transfer : nonFlightsFromOrigin) {
-            var airportId = transfer.getDestinationLocation().getId();
-            
-            for (var flight : flightsByOrigin.getOrDefault(airportId, List.of())) {
-                if (flight.getDestinationLocation().getId().equals(destinationId)) {
-                    var route = new RouteDTO();
-                    route.setSegments(List.of(
-                            createSegment(transfer, SegmentType.BEFORE_FLIGHT),
-                            createSegment(flight, SegmentType.FLIGHT)
-                    ));
-                    allRoutes.add(route);
-                }
-            }
-        }
+        requireKnownLocation(originId, "Origin location not found");
+        requireKnownLocation(destinationId, "Destination location not found");
         
-        // Pattern 3: Flight + After flight transfer (Origin -> Airport -> Destination)
-        for (var flight : flightsByOrigin.getOrDefault(originId, List.of())) {
-            var airportId = flight.getDestinationLocation().getId();
-            
-            for (var transfer : afterTransfersByAirport.getOrDefault(airportId, List.of())) {
-                var route = new RouteDTO();
-                route.setSegments(List.of(
-                        createSegment(flight, SegmentType.FLIGHT),
-                        createSegment(transfer, SegmentType.AFTER_FLIGHT)
-                ));
-                allRoutes.add(route);
-            }
+        if (!constraints.allowsAnyRoute()) {
+            return null;
         }
         
-        // Pattern 4: Before + Flight + After (Origin -> Airport1 -> Airport2 -> Destination)
-        for (var beforeTransfer : nonFlightsFromOrigin) {
-            var airport1Id = beforeTransfer.getDestinationLocation().getId();
-            
-            for (var flight : flightsByOrigin.getOrDefault(airport1Id, List.of())) {
-                var airport2Id = flight.getDestinationLocation().getId();
-                
-                for (var afterTransfer : afterTransfersByAirport.getOrDefault(airport2Id, List.of())) {
-                    var route = new RouteDTO();
-                    route.setSegments(List.of(
-                            createSegment(beforeTransfer, SegmentType.BEFORE_FLIGHT),
-                            createSegment(flight, SegmentType.FLIGHT),
-                            createSegment(afterTransfer, SegmentType.AFTER_FLIGHT)
-                    ));
-                    allRoutes.add(route);
+        var dayOfWeek = date.getDayOfWeek().getValue(); // 1 = Monday, 7 = Sunday
+        var period = validityIndex.periodOf(date);
+        
+        // Compose the cached tiers, skipping the ground tiers the constraints rule out entirely;
+        // a ground leg from the origin straight to the destination is in both. Tiers hold every type
+        // so all constraint variants share them; excluded types are dropped here, from a handful of
+        // legs per location rather than a query per variant
+        var ground = legCache.groundLegs(
+                constraints.allowsBeforeTransfers() ? originId : null,
+                constraints.allowsAfterTransfers() ? destinationId : null,
+                dayOfWeek);
+        var legs = new LinkedHashMap<Long, RouteLeg>();
+        for (var tier : List.of(legCache.flightsOn(dayOfWeek), ground.departing(), ground.arriving())) {
+            for (var leg : tier) {
+                if (constraints.allows(leg) && period.isActive(leg.transportationId())) {
+                    legs.putIfAbsent(leg.transportationId(), leg);
                 }
             }
         }
         
-        return allRoutes;
+        // Index flights and ground transport by origin for O(1) lookups during enumeration
+        return RouteGraph.of(legs.values());
+    }
+    
+    /**
+     * The whole network of the day, minus the legs out of season or excluded by the constraints. Excluded
+     * transportation types are left out by the query itself.
+     */
+    private RouteGraph dayGraph(LocalDate date, RouteConstraints constraints) {
+        var period = validityIndex.periodOf(date);
+        int dayOfWeek = date.getDayOfWeek().getValue();
+        var rows = constraints.restrictsTransportationTypes()
+                ? transportationRepository.findLegsOfTypesOperatingOn(constraints.transportationTypes(), dayOfWeek)
+                : transportationRepository.findLegsOperatingOn(dayOfWeek);
+        var legs = RouteLeg.fromRows(rows, locationRegistry);
+        legs.removeIf(leg -> !period.isActive(leg.transportationId()));
+        return RouteGraph.of(legs);
+    }
+    
+    private int materializedCount(Long originId, Long destinationId, LocalDate date, RouteConstraints constraints) {
+        requireKnownLocation(originId, "Origin location not found");
+        requireKnownLocation(destinationId, "Destination location not found");
+        return (int) materializedRoutes(originId, destinationId, date).stream()
+                .filter(constraints::allows)
+                .count();
+    }
+    
+    /**
+     * Routes from {@link MaterializedRouteIndex}, which holds every leg of the weekday, minus those using
+     * a leg out of season on {@code date}.
+     */
+    private List<RouteDTO> materializedRoutes(Long originId, Long destinationId, LocalDate date) {
+        var routes = materializedRouteIndex.findRoutes(originId, destinationId, date);
+        var period = validityIndex.periodOf(date);
+        return period.inactiveIds().isEmpty() ? routes : routes.stream().filter(period::isActive).collect(Collectors.toList());
+    }
+    
+    private void requireKnownLocation(Long locationId, String message) {
+        if (!locationRegistry.contains(locationId)) {
+            throw new LocationNotFoundException(message);
+        }
     }
     
-    private RouteDTO.TransportationSegmentDTO createSegment(Transportation transportation, SegmentType segmentType) {
-        return new RouteDTO.TransportationSegmentDTO(
-                transportation.getId(),
-                transportation.getTransportationType(),
-                LocationDTO.from(transportation.getOriginLocation()),
-                LocationDTO.from(transportation.getDestinationLocation()),
-                segmentType
-        );
+    private static LocationDTO finalStop(RouteDTO route) {
+        var segments = route.getSegments();
+        return segments.get(segments.size() - 1).to();
     }
 }
@@ -0,0 +1,75 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteDTO;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Set;
+
+/**
+ * A stretch of the calendar over which the set of seasonally valid transportations does not change,
+ * as resolved by {@link TransportationValidityIndex}. Together with the weekday it fully determines
+ * which legs a route search may use.
+ *
+ * @param start       first day of the period, {@code null} when it reaches back indefinitely
+ * @param end         last day of the period, {@code null} when it runs on indefinitely
+ * @param inactiveIds seasonal transportations that are out of season throughout the period
+ */
+public record SchedulePeriod(LocalDate start, LocalDate end, Set<Long> inactiveIds) {
+
+    // Representative dates of periods without a start are taken from here, keeping them stable
+    private static final LocalDate OPEN_ANCHOR = LocalDate.EPOCH;
+
+    private static final SchedulePeriod ALWAYS = new SchedulePeriod(null, null, Set.of());
+
+    /**
+     * The single period of a network without seasonal transportations.
+     */
+    public static SchedulePeriod always() {
+        return ALWAYS;
+    }
+
+    public boolean isActive(Long transportationId) {
+        return !inactiveIds.contains(transportationId);
+    }
+
+    /**
+     * Whether every segment of a route built without regard to validity is in season.
+     */
+    public boolean isActive(RouteDTO route) {
+        if (inactiveIds.isEmpty()) {
+            return true;
+        }
+        for (var segment : route.getSegments()) {
+            if (inactiveIds.contains(segment.transportationId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The canonical date standing for {@code date} in cache keys: the first date of this period falling on the
+     * same weekday. Dates sharing a weekday and a period run the same legs and so share cache entries.
+     *
+     * @param date a date within this period
+     */
+    public LocalDate scheduleDate(LocalDate date) {
+        LocalDate anchor;
+        if (start != null) {
+            anchor = start;
+        } else if (end != null && end.isBefore(OPEN_ANCHOR.plusDays(6))) {
+            anchor = end.minusDays(6);
+        } else {
+            anchor = OPEN_ANCHOR;
+        }
+        return anchor.with(TemporalAdjusters.nextOrSame(date.getDayOfWeek()));
+    }
+
+    /**
+     * Identifies the period among those of the same index build, e.g. {@code 2025-06-01..2025-09-30}.
+     */
+    public String key() {
+        return (start != null ? start.toString() : "") + ".." + (end != null ? end.toString() : "");
+    }
+}
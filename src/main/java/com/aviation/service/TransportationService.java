@@ -4,12 +4,14 @@ import com.aviation.dto.LocationDTO;
 import com.aviation.dto.TransportationDTO;
 import com.aviation.entity.Location;
 import com.aviation.entity.Transportation;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
 import com.aviation.repository.LocationRepository;
 import com.aviation.repository.TransportationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,8 @@ public class TransportationService {
     
     private final TransportationRepository transportationRepository;
     private final LocationRepository locationRepository;
+    private final LocationRegistry locationRegistry;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional(readOnly = true)
     @Cacheable(value = "transportations", key = "'all'")
@@ -49,56 +53,52 @@ public class TransportationService {
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "transportations", allEntries = true)
-    })
+    @CacheEvict(value = {"transportations", "transportationResponses"}, allEntries = true)
     public TransportationDTO createTransportation(TransportationDTO dto) {
         validateOriginNotEqualToDestination(dto);
         validateOperatingDays(dto.getOperatingDays());
+        validateValidity(dto);
 
         Transportation transportation = convertToEntity(dto);
         Transportation savedTransportation = transportationRepository.save(transportation);
+        eventPublisher.publishEvent(new TransportationChangedEvent(null, LegState.from(savedTransportation)));
         return convertToDTO(savedTransportation);
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "transportations", allEntries = true)
-    })
+    @CacheEvict(value = {"transportations", "transportationResponses"}, allEntries = true)
     public TransportationDTO updateTransportation(Long id, TransportationDTO dto) {
         validateOriginNotEqualToDestination(dto);
         validateOperatingDays(dto.getOperatingDays());
+        validateValidity(dto);
 
         Transportation transportation = transportationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transportation not found with id: " + id));
+        LegState previous = LegState.from(transportation);
         
-        Location originLocation = locationRepository.findById(dto.getOriginLocationId())
-                .orElseThrow(() -> new RuntimeException("Origin location not found"));
-        
-        Location destinationLocation = locationRepository.findById(dto.getDestinationLocationId())
-                .orElseThrow(() -> new RuntimeException("Destination location not found"));
+        Location originLocation = referenceTo(dto.getOriginLocationId(), "Origin location not found");
+        Location destinationLocation = referenceTo(dto.getDestinationLocationId(), "Destination location not found");
         
         transportation.setOriginLocation(originLocation);
         transportation.setDestinationLocation(destinationLocation);
         transportation.setTransportationType(dto.getTransportationType());
         transportation.setOperatingDays(dto.getOperatingDays());
+        transportation.setValidFrom(dto.getValidFrom());
+        transportation.setValidTo(dto.getValidTo());
         
         Transportation updatedTransportation = transportationRepository.save(transportation);
+        eventPublisher.publishEvent(new TransportationChangedEvent(previous, LegState.from(updatedTransportation)));
         return convertToDTO(updatedTransportation);
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "routes", allEntries = true),
-            @CacheEvict(value = "transportations", allEntries = true)
-    })
+    @CacheEvict(value = {"transportations", "transportationResponses"}, allEntries = true)
     public void deleteTransportation(Long id) {
-        if (!transportationRepository.existsById(id)) {
-            throw new RuntimeException("Transportation not found with id: " + id);
-        }
-        transportationRepository.deleteById(id);
+        Transportation transportation = transportationRepository.findByIdWithOperatingDays(id)
+                .orElseThrow(() -> new RuntimeException("Transportation not found with id: " + id));
+        LegState previous = LegState.from(transportation);
+        transportationRepository.delete(transportation);
+        eventPublisher.publishEvent(new TransportationChangedEvent(previous, null));
     }
 
     private void validateOriginNotEqualToDestination(TransportationDTO dto) {
@@ -116,6 +116,12 @@ public class TransportationService {
         }
     }
     
+    private void validateValidity(TransportationDTO dto) {
+        if (dto.getValidFrom() != null && dto.getValidTo() != null && dto.getValidTo().isBefore(dto.getValidFrom())) {
+            throw new RuntimeException("Valid to date must not be before valid from date");
+        }
+    }
+    
     private TransportationDTO convertToDTO(Transportation transportation) {
         TransportationDTO dto = new TransportationDTO();
         dto.setId(transportation.getId());
@@ -124,26 +130,45 @@ public class TransportationService {
         dto.setTransportationType(transportation.getTransportationType());
         dto.setOperatingDays(transportation.getOperatingDays() != null
                 ? new ArrayList<>(transportation.getOperatingDays()) : null);
+        dto.setValidFrom(transportation.getValidFrom());
+        dto.setValidTo(transportation.getValidTo());
         
-        dto.setOriginLocation(LocationDTO.from(transportation.getOriginLocation()));
-        dto.setDestinationLocation(LocationDTO.from(transportation.getDestinationLocation()));
+        dto.setOriginLocation(locationOf(transportation.getOriginLocation()));
+        dto.setDestinationLocation(locationOf(transportation.getDestinationLocation()));
         
         return dto;
     }
     
+    /**
+     * Location details from {@link LocationRegistry}, so building a DTO does not initialise the lazy association.
+     */
+    private LocationDTO locationOf(Location location) {
+        return locationRegistry.findById(location.getId()).orElseGet(() -> LocationDTO.from(location));
+    }
+    
+    /**
+     * Checks the location exists against {@link LocationRegistry} and returns an uninitialised reference to it,
+     * which is all the association needs, instead of loading the row.
+     */
+    private Location referenceTo(Long locationId, String message) {
+        if (!locationRegistry.contains(locationId)) {
+            throw new RuntimeException(message);
+        }
+        return locationRepository.getReferenceById(locationId);
+    }
+    
     private Transportation convertToEntity(TransportationDTO dto) {
         Transportation transportation = new Transportation();
         
-        Location originLocation = locationRepository.findById(dto.getOriginLocationId())
-                .orElseThrow(() -> new RuntimeException("Origin location not found"));
-        
-        Location destinationLocation = locationRepository.findById(dto.getDestinationLocationId())
-                .orElseThrow(() -> new RuntimeException("Destination location not found"));
+        Location originLocation = referenceTo(dto.getOriginLocationId(), "Origin location not found");
+        Location destinationLocation = referenceTo(dto.getDestinationLocationId(), "Destination location not found");
         
         transportation.setOriginLocation(originLocation);
         transportation.setDestinationLocation(destinationLocation);
         transportation.setTransportationType(dto.getTransportationType());
         transportation.setOperatingDays(dto.getOperatingDays());
+        transportation.setValidFrom(dto.getValidFrom());
+        transportation.setValidTo(dto.getValidTo());
         
         return transportation;
     }
@@ -0,0 +1,202 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
+import com.aviation.repository.TransportationRepository;
+import com.aviation.repository.TransportationValidity;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory interval index over the seasonal validity ranges of transportations, telling route searches
+ * which legs are in season on a date.
+ *
+ * <p>The range boundaries cut the calendar into {@link SchedulePeriod}s within which no leg enters or
+ * leaves its season. A date is mapped to its period by binary search over the sorted boundaries. The legs
+ * out of season in a period are found once, with a stabbing query on an augmented interval tree (ranges
+ * sorted by start in an implicit balanced tree whose nodes know the latest end below them), and memoised,
+ * so thousands of overlapping ranges cost {@code O(log n)} per search.
+ *
+ * <p>Leg tiers and weekday structures keep holding every leg regardless of validity; searches drop
+ * out-of-season legs in memory, and cache keys use {@link SchedulePeriod#scheduleDate} so every date of
+ * a season shares its entries. The index is rebuilt lazily, from a single projection query, after a
+ * seasonal transportation changes.
+ *
+ * <p>Staleness is tracked with the {@value #GENERATION} counter of {@link CacheGenerations}, so a seasonal
+ * change committed on any instance makes every instance rebuild its index.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransportationValidityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TransportationValidityIndex.class);
+
+    static final String GENERATION = "transportationValidity";
+
+    private final TransportationRepository transportationRepository;
+    private final CacheGenerations cacheGenerations;
+
+    private volatile Snapshot snapshot;
+
+    public SchedulePeriod periodOf(LocalDate date) {
+        return snapshot().periodOf(date.toEpochDay());
+    }
+
+    /**
+     * The canonical date that stands for {@code date} in cache keys, see {@link SchedulePeriod#scheduleDate}.
+     */
+    public LocalDate scheduleDate(LocalDate date) {
+        return periodOf(date).scheduleDate(date);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransportationChanged(TransportationChangedEvent event) {
+        if (isSeasonal(event.previous()) || isSeasonal(event.current())) {
+            cacheGenerations.advance(GENERATION);
+        }
+    }
+
+    private Snapshot snapshot() {
+        var current = snapshot;
+        long generation = cacheGenerations.current(GENERATION);
+        if (current != null && current.generation == generation) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.generation != generation) {
+                long start = System.nanoTime();
+                current = new Snapshot(generation, transportationRepository.findSeasonalValidities());
+                snapshot = current;
+                log.debug("Validity index built: {} seasonal transportations, {} boundaries in {} µs",
+                        current.ids.length, current.boundaries.length, (System.nanoTime() - start) / 1_000);
+            }
+            return current;
+        }
+    }
+
+    private static boolean isSeasonal(LegState leg) {
+        return leg != null && leg.isSeasonal();
+    }
+
+    private static final class Snapshot {
+
+        private final long generation;
+
+        // Epoch days on which some leg enters or leaves its season, ascending
+        private final long[] boundaries;
+
+        // Ranges sorted by start; open ends are Long.MIN_VALUE / Long.MAX_VALUE
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        // Latest end within the implicit subtree rooted at each index
+        private final long[] maxEnds;
+
+        // Memoised per period index (number of boundaries on or before the period's days)
+        private final Map<Integer, SchedulePeriod> periods = new ConcurrentHashMap<>();
+
+        private Snapshot(long generation, List<TransportationValidity> validities) {
+            this.generation = generation;
+            var sorted = validities.stream()
+                    .sorted(Comparator.comparingLong(validity -> startOf(validity)))
+                    .toList();
+            int size = sorted.size();
+            ids = new long[size];
+            starts = new long[size];
+            ends = new long[size];
+            maxEnds = new long[size];
+            var cuts = new TreeSet<Long>();
+            for (int i = 0; i < size; i++) {
+                var validity = sorted.get(i);
+                ids[i] = validity.transportationId();
+                starts[i] = startOf(validity);
+                ends[i] = validity.validTo() != null ? validity.validTo().toEpochDay() : Long.MAX_VALUE;
+                if (validity.validFrom() != null) {
+                    cuts.add(starts[i]);
+                }
+                if (validity.validTo() != null) {
+                    cuts.add(ends[i] + 1);
+                }
+            }
+            boundaries = cuts.stream().mapToLong(Long::longValue).toArray();
+            computeMaxEnds(0, size);
+        }
+
+        SchedulePeriod periodOf(long day) {
+            if (ids.length == 0) {
+                return SchedulePeriod.always();
+            }
+            int index = Arrays.binarySearch(boundaries, day);
+            int period = index >= 0 ? index + 1 : -index - 1;
+            return periods.computeIfAbsent(period, this::buildPeriod);
+        }
+
+        private SchedulePeriod buildPeriod(int period) {
+            Long start = period > 0 ? boundaries[period - 1] : null;
+            Long end = period < boundaries.length ? boundaries[period] - 1 : null;
+            long probe = start != null ? start : end;
+
+            var active = new HashSet<Long>();
+            stab(0, ids.length, probe, active);
+            var inactive = new HashSet<Long>();
+            for (var id : ids) {
+                if (!active.contains(id)) {
+                    inactive.add(id);
+                }
+            }
+            return new SchedulePeriod(start != null ? LocalDate.ofEpochDay(start) : null,
+                    end != null ? LocalDate.ofEpochDay(end) : null, Set.copyOf(inactive));
+        }
+
+        private long computeMaxEnds(int low, int high) {
+            if (low >= high) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (low + high) >>> 1;
+            long max = Math.max(ends[mid], Math.max(computeMaxEnds(low, mid), computeMaxEnds(mid + 1, high)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        /**
+         * Collects the ids of the ranges containing {@code day} within the subtree over {@code [low, high)}.
+         */
+        private void stab(int low, int high, long day, Set<Long> found) {
+            if (low >= high) {
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] < day) {
+                return;
+            }
+            stab(low, mid, day, found);
+            if (starts[mid] > day) {
+                // Everything to the right starts even later
+                return;
+            }
+            if (ends[mid] >= day) {
+                found.add(ids[mid]);
+            }
+            stab(mid + 1, high, day, found);
+        }
+
+        private static long startOf(TransportationValidity validity) {
+            return validity.validFrom() != null ? validity.validFrom().toEpochDay() : Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.aviation.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenerationalCacheTest {
+
+    @Mock
+    private CacheGenerations generations;
+
+    private ConcurrentMapCache store;
+    private GenerationalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentMapCache("routes");
+        cache = new GenerationalCache(store, generations);
+    }
+
+    @Test
+    void testKeysAreNamespacedByGeneration() {
+        when(generations.current("routes")).thenReturn(3L);
+
+        cache.put("route:1:4:2025-03-10", "value");
+
+        assertNotNull(store.get("g3:route:1:4:2025-03-10"));
+        assertEquals("value", cache.get("route:1:4:2025-03-10").get());
+    }
+
+    @Test
+    void testClearAdvancesGenerationWithoutDeletingEntries() {
+        when(generations.current("routes")).thenReturn(3L);
+        cache.put("route:1:4:2025-03-10", "value");
+
+        cache.clear();
+        verify(generations).advance("routes");
+
+        // Old entries stay until their TTL expires but are no longer reachable
+        when(generations.current("routes")).thenReturn(4L);
+        assertNull(cache.get("route:1:4:2025-03-10"));
+        assertTrue(store.getNativeCache().containsKey("g3:route:1:4:2025-03-10"));
+    }
+}
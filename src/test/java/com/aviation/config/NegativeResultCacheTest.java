@@ -0,0 +1,94 @@
+package com.aviation.config;
+
+import com.aviation.config.RefreshAheadCache.CachedValue;
+import com.aviation.exception.LocationNotFoundException;
+import com.aviation.service.RouteCacheKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NegativeResultCacheTest {
+
+    private final RouteCacheKey key = RouteCacheKey.route(1L, 4L, LocalDate.of(2025, 3, 10));
+
+    private ConcurrentMapCache routes;
+    private ConcurrentMapCache misses;
+    private NegativeResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        routes = new ConcurrentMapCache("routes");
+        misses = new ConcurrentMapCache("routeMisses");
+        cache = new NegativeResultCache(routes, () -> misses);
+    }
+
+    @Test
+    void testEmptyResultIsRememberedAsMarker() {
+        var loads = new AtomicInteger();
+
+        assertEquals(List.of(), cache.get(key, () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>();
+        }));
+        assertEquals(List.of(), cache.get(key, () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>();
+        }));
+
+        assertEquals(1, loads.get());
+        assertNull(routes.get(key));
+        assertEquals(NegativeResultCache.NO_ROUTE, misses.get(key, String.class));
+    }
+
+    @Test
+    void testUnknownLocationIsReplayedWithoutLoading() {
+        var loads = new AtomicInteger();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            var ex = assertThrows(Cache.ValueRetrievalException.class, () -> cache.get(key, () -> {
+                loads.incrementAndGet();
+                throw new LocationNotFoundException("Origin location not found");
+            }));
+            assertInstanceOf(LocationNotFoundException.class, ex.getCause());
+            assertEquals("Origin location not found", ex.getCause().getMessage());
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingReplacesTheStaleRoutes() {
+        var scheduled = new ArrayList<Runnable>();
+        var refreshing = new NegativeResultCache(
+                new RefreshAheadCache(routes, Duration.ofMinutes(10), 1.0, scheduled::add), () -> misses);
+        routes.put(key, new CachedValue(List.of("route"),
+                System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), 5));
+
+        assertEquals(List.of("route"), refreshing.get(key, ArrayList::new));
+        scheduled.get(0).run();
+
+        assertNull(routes.get(key));
+        assertEquals(NegativeResultCache.NO_ROUTE, misses.get(key, String.class));
+        assertEquals(List.of(), refreshing.get(key, () -> List.of("unused")));
+    }
+
+    @Test
+    void testRoutesAreStoredInWrappedCache() {
+        assertEquals(List.of("route"), cache.get(key, () -> List.of("route")));
+
+        assertEquals(List.of("route"), routes.get(key).get());
+        assertNull(misses.get(key));
+    }
+}
@@ -0,0 +1,86 @@
+package com.aviation.config;
+
+import com.aviation.config.RefreshAheadCache.CachedValue;
+import com.aviation.dto.LocationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshAheadCacheTest {
+
+    private static final String KEY = "route:1:4:2025-03-10";
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private ConcurrentMapCache store;
+    private RefreshAheadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentMapCache("routes");
+        cache = new RefreshAheadCache(store, Duration.ofMinutes(10), 1.0, scheduled::add);
+    }
+
+    @Test
+    void testColdMissLoadsOnceThenServesFromCache() {
+        var loads = new AtomicInteger();
+
+        assertEquals("fresh", cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        }));
+        assertEquals("fresh", cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        }));
+
+        assertEquals(1, loads.get());
+        assertTrue(scheduled.isEmpty());
+        assertTrue(store.get(KEY).get() instanceof CachedValue);
+    }
+
+    @Test
+    void testExpiredEntryIsServedStaleWhileRefreshing() {
+        store.put(KEY, new CachedValue("stale", System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), 5));
+
+        assertEquals("stale", cache.get(KEY, () -> "fresh"));
+        // Concurrent readers do not queue a second refresh
+        assertEquals("stale", cache.get(KEY, () -> "fresh"));
+        assertEquals(1, scheduled.size());
+
+        scheduled.get(0).run();
+        assertEquals("fresh", cache.get(KEY, () -> "unused"));
+    }
+
+    @Test
+    void testFailedRefreshKeepsServingLastValue() {
+        store.put(KEY, new CachedValue("stale", System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), 5));
+
+        cache.get(KEY, () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        scheduled.get(0).run();
+
+        assertEquals("stale", cache.get(KEY).get());
+    }
+
+    @Test
+    void testEnvelopeRoundTripsThroughRedisSerializer() {
+        var serializer = new GenericJackson2JsonRedisSerializer();
+        var location = new LocationDTO(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST");
+        var envelope = new CachedValue(new ArrayList<>(List.of(location)), 1_000L, 12L);
+
+        var restored = (CachedValue) serializer.deserialize(serializer.serialize(envelope));
+
+        assertEquals(envelope, restored);
+    }
+}
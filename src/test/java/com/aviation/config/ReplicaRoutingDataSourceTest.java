@@ -0,0 +1,253 @@
+package com.aviation.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Routes between two separate in-memory H2 databases. Replication is simulated by copying the primary's
+ * heartbeats to the replica, and the shared write watermark is held in memory in place of Redis.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-03-10T10:00:00Z"));
+    private final AtomicLong sharedWatermark = new AtomicLong();
+    private StringRedisTemplate redisTemplate;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("primary");
+        replica = pool("replica-1");
+        for (var target : Map.of("primary", primary, "replica-1", replica).entrySet()) {
+            var template = new JdbcTemplate(target.getValue());
+            template.execute("CREATE TABLE target (name VARCHAR(20))");
+            template.update("INSERT INTO target VALUES (?)", target.getKey());
+        }
+        // Created with the schema on the primary
+        createHeartbeatTable(primary);
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(values);
+        lenient().when(values.get(ReplicaLagMonitor.WATERMARK_KEY)).thenAnswer(
+                invocation -> String.valueOf(sharedWatermark.get()));
+        lenient().when(redisTemplate.execute(any(RedisScript.class), eq(List.of(ReplicaLagMonitor.WATERMARK_KEY)),
+                anyString())).thenAnswer(invocation -> sharedWatermark.accumulateAndGet(
+                Long.parseLong(invocation.getArgument(2)), Math::max));
+        lagMonitor = new ReplicaLagMonitor(primary, Map.of("replica-1", replica), Duration.ofSeconds(5), clock,
+                redisTemplate, "instance-1");
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), lagMonitor);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lagMonitor.close();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseACaughtUpReplica() {
+        replicate();
+
+        assertEquals("replica-1", readOnly.execute(status -> currentTarget()));
+        assertEquals("primary", readWrite.execute(status -> currentTarget()));
+        assertEquals("primary", currentTarget());
+        assertEquals(0, routing.getStats().primaryFallbacks());
+    }
+
+    @Test
+    void lagBeyondTheLimitFallsBackToThePrimary() {
+        replicate(Duration.ofSeconds(6));
+
+        assertEquals("primary", readOnly.execute(status -> currentTarget()));
+        assertEquals(1, routing.getStats().primaryFallbacks());
+        assertTrue(routing.getStats().targets().get(1).replicationLagMillis() >= 6_000L);
+    }
+
+    @Test
+    void lagKeepsGrowingWhileProbesStall() {
+        replicate();
+        clock.advance(Duration.ofSeconds(6));
+
+        assertEquals("primary", readOnly.execute(status -> currentTarget()));
+        assertTrue(routing.getStats().targets().get(1).replicationLagMillis() >= 6_000L);
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilTheReplicaHasReplayedTheLatestWrite() {
+        replicate();
+
+        var heartbeat = heartbeatOnPrimary();
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE target SET name = name"));
+        // The commit itself neither beats nor shares anything; the monitor's next heartbeat does
+        assertEquals(heartbeat, heartbeatOnPrimary());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(List.class), anyString());
+        assertFalse(lagMonitor.isCaughtUp("replica-1"));
+        assertEquals("primary", readOnly.execute(status -> currentTarget()));
+
+        replicate();
+        assertTrue(lagMonitor.isCaughtUp("replica-1"));
+        assertEquals("replica-1", readOnly.execute(status -> currentTarget()));
+    }
+
+    @Test
+    void writesMadeOnAnotherInstanceKeepReadsOnThePrimary() {
+        replicate();
+        assertEquals("replica-1", readOnly.execute(status -> currentTarget()));
+
+        // Another instance committed a write and took its heartbeat after everything replicated so far
+        long watermark = ReplicaLagMonitor.micros(new JdbcTemplate(replica).queryForObject(
+                "SELECT MAX(beat_at) FROM " + ReplicaLagMonitor.HEARTBEAT_TABLE, Timestamp.class)) + 1;
+        sharedWatermark.set(watermark);
+        lagMonitor.onMessage(new DefaultMessage(ReplicaLagMonitor.WATERMARK_KEY.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(watermark).getBytes(StandardCharsets.UTF_8)), null);
+        assertFalse(lagMonitor.isCaughtUp("replica-1"));
+        assertEquals("primary", readOnly.execute(status -> currentTarget()));
+
+        replicate();
+        assertEquals("replica-1", readOnly.execute(status -> currentTarget()));
+    }
+
+    @Test
+    void unreachableReplicaIsNeverUsed() {
+        lagMonitor.probe();
+
+        assertEquals("primary", readOnly.execute(status -> currentTarget()));
+        var replicaStats = routing.getStats().targets().get(1);
+        assertEquals("REPLICA", replicaStats.role());
+        assertEquals(null, replicaStats.replicationLagMillis());
+    }
+
+    private String currentTarget() {
+        return jdbc.queryForObject("SELECT name FROM target", String.class);
+    }
+
+    private void replicate() {
+        replicate(Duration.ZERO);
+    }
+
+    /**
+     * Writes a heartbeat to the primary and copies the heartbeat rows to the replica, as replication would,
+     * then probes. The copies are set back by {@code behind} to simulate a lagging replica.
+     */
+    private void replicate(Duration behind) {
+        awaitNextMillisecond();
+        lagMonitor.probe();
+        var rows = new JdbcTemplate(primary).queryForList(
+                "SELECT instance_id, beat_at FROM " + ReplicaLagMonitor.HEARTBEAT_TABLE);
+        createHeartbeatTable(replica);
+        var replicaJdbc = new JdbcTemplate(replica);
+        for (var row : rows) {
+            var beatAt = ((Timestamp) row.get("beat_at")).toInstant().minus(behind);
+            replicaJdbc.update("MERGE INTO " + ReplicaLagMonitor.HEARTBEAT_TABLE + " KEY (instance_id) VALUES (?, ?)",
+                    row.get("instance_id"), Timestamp.from(beatAt));
+        }
+        lagMonitor.probe();
+    }
+
+    private Timestamp heartbeatOnPrimary() {
+        return new JdbcTemplate(primary).queryForObject("SELECT beat_at FROM " + ReplicaLagMonitor.HEARTBEAT_TABLE
+                + " WHERE instance_id = 'instance-1'", Timestamp.class);
+    }
+
+    private static void createHeartbeatTable(DataSource target) {
+        new JdbcTemplate(target).execute("CREATE TABLE IF NOT EXISTS " + ReplicaLagMonitor.HEARTBEAT_TABLE
+                + " (instance_id VARCHAR(64) PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+    }
+
+    /**
+     * Lets the primary's clock move on, so the next heartbeat is strictly later than the last one.
+     */
+    private static void awaitNextMillisecond() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HikariDataSource pool(String name) {
+        var pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.aviation.config;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.dto.RouteDTO;
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+import com.aviation.service.RouteCacheKey;
+import com.aviation.service.RouteCacheKeyIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ResponseBodyCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("locationResponses", "routeResponses");
+    private final MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter();
+    private final RouteCacheKeyIndex routeCacheKeyIndex = mock(RouteCacheKeyIndex.class);
+    private final ResponseBodyCache responseBodyCache =
+            new ResponseBodyCache(cacheManager, routeCacheKeyIndex, objectMapper, cborConverter);
+
+    private final List<LocationDTO> locations = List.of(
+            new LocationDTO(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST"),
+            new LocationDTO(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST"));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(responseBodyCache, "enabled", true);
+        ReflectionTestUtils.setField(responseBodyCache, "gzipMinSize", 64);
+    }
+
+    @Test
+    void testHitServesStoredBytesWithoutLoading() throws Exception {
+        var loads = new AtomicInteger();
+        var request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        var first = responseBodyCache.respond("locationResponses", "all", request, () -> {
+            loads.incrementAndGet();
+            return locations;
+        });
+        var second = responseBodyCache.respond("locationResponses", "all", request, () -> {
+            loads.incrementAndGet();
+            return locations;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("gzip", second.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(first.getBody(), second.getBody());
+    }
+
+    @Test
+    void testCompressedBodyIsInflatedForClientsWithoutGzip() throws Exception {
+        responseBodyCache.respond("locationResponses", "all", new MockHttpServletRequest(), () -> locations);
+
+        var response = responseBodyCache.respond("locationResponses", "all", new MockHttpServletRequest(), () -> null);
+
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(objectMapper.writeValueAsBytes(locations), response.getBody());
+    }
+
+    @Test
+    void testCborIsNegotiatedAndCachedSeparately() throws Exception {
+        var request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor");
+
+        var response = responseBodyCache.respond("locationResponses", "all", request, () -> locations);
+
+        assertEquals(MediaType.APPLICATION_CBOR, response.getHeaders().getContentType());
+        var decoded = cborConverter.getObjectMapper().readValue(response.getBody(), LocationDTO[].class);
+        assertEquals(locations, List.of(decoded));
+        assertNull(cacheManager.getCache("locationResponses").get("all"));
+        assertNotNull(cacheManager.getCache("locationResponses").get("cbor:all"));
+    }
+
+    @Test
+    void testRouteBodyIsIndexedByTheRoutesItWasRenderedFrom() throws Exception {
+        var key = RouteCacheKey.route(1L, 2L, LocalDate.of(2025, 3, 10));
+        var routes = List.of(new RouteDTO(List.of(new RouteDTO.TransportationSegmentDTO(
+                10L, TransportationType.FLIGHT, locations.get(0), locations.get(1), SegmentType.FLIGHT))));
+
+        responseBodyCache.respond("routeResponses", key, new MockHttpServletRequest(), () -> routes);
+
+        verify(routeCacheKeyIndex).register(key, routes);
+        assertNotNull(cacheManager.getCache("routeResponses").get(key));
+    }
+
+    @Test
+    void testAcceptWithoutJsonOrCborIsRejected() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "text/html, application/xml;q=0.9");
+
+        assertThrows(HttpMediaTypeNotAcceptableException.class,
+                () -> responseBodyCache.respond("locationResponses", "all", request, () -> locations));
+        assertNull(cacheManager.getCache("locationResponses").get("all"));
+    }
+
+    @Test
+    void testWildcardAcceptIsServedJson() throws Exception {
+        var request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "text/html, */*;q=0.1");
+
+        var response = responseBodyCache.respond("locationResponses", "all", request, () -> locations);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void testEmptyResultsAreNotCached() throws Exception {
+        responseBodyCache.respond("locationResponses", "all", new MockHttpServletRequest(), ArrayList::new);
+
+        assertNull(cacheManager.getCache("locationResponses").get("all"));
+    }
+
+    @Test
+    void testSparseFieldsetOmitsUnrequestedPropertiesAndIsCachedSeparately() throws Exception {
+        var fields = FieldSelection.parse("locationCode, name");
+
+        var response = responseBodyCache.respond("locationResponses", "all", new MockHttpServletRequest(), fields,
+                () -> locations);
+
+        var written = objectMapper.readTree(response.getBody());
+        assertEquals("CCIST", written.get(0).get("locationCode").asText());
+        assertEquals("Taksim Square", written.get(0).get("name").asText());
+        assertFalse(written.get(0).has("country"));
+        assertFalse(written.get(0).has("id"));
+        assertNull(cacheManager.getCache("locationResponses").get("all"));
+        assertNotNull(cacheManager.getCache("locationResponses").get("fields=locationCode,name:all"));
+    }
+
+    @Test
+    void testSparseFieldsetInsideWrapperKeepsWrapperProperties() throws Exception {
+        var fields = FieldSelection.parse("city").within("content");
+
+        var response = responseBodyCache.respond(null, null, new MockHttpServletRequest(), fields,
+                () -> Map.of("content", locations, "total", 2));
+
+        var written = objectMapper.readTree(response.getBody());
+        assertEquals(2, written.get("total").asInt());
+        assertEquals("Istanbul", written.get("content").get(1).get("city").asText());
+        assertFalse(written.get("content").get(1).has("name"));
+    }
+}
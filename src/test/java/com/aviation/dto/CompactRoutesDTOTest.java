@@ -0,0 +1,38 @@
+package com.aviation.dto;
+
+import com.aviation.dto.RouteDTO.TransportationSegmentDTO;
+import com.aviation.entity.SegmentType;
+import com.aviation.entity.TransportationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompactRoutesDTOTest {
+
+    @Test
+    void testLocationsAreListedOnceAndReferencedById() {
+        var taksimSquare = new LocationDTO(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST");
+        var istanbulAirport = new LocationDTO(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        var londonHeathrow = new LocationDTO(3L, "London Heathrow", "UK", "London", "LHR");
+        var bus = new TransportationSegmentDTO(1L, TransportationType.BUS, taksimSquare, istanbulAirport,
+                SegmentType.BEFORE_FLIGHT);
+        var subway = new TransportationSegmentDTO(2L, TransportationType.SUBWAY, taksimSquare, istanbulAirport,
+                SegmentType.BEFORE_FLIGHT);
+        var flight = new TransportationSegmentDTO(3L, TransportationType.FLIGHT, istanbulAirport, londonHeathrow,
+                SegmentType.FLIGHT);
+
+        var compact = CompactRoutesDTO.from(List.of(
+                new RouteDTO(List.of(bus, flight)),
+                new RouteDTO(List.of(subway, flight))));
+
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(compact.locations().keySet()));
+        assertEquals(2, compact.routes().size());
+        var segment = compact.routes().get(1).segments().get(0);
+        assertEquals(2L, segment.transportationId());
+        assertEquals(1L, segment.fromId());
+        assertEquals(2L, segment.toId());
+        assertEquals(SegmentType.BEFORE_FLIGHT, segment.segmentType());
+    }
+}
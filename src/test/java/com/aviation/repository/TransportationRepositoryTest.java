@@ -0,0 +1,96 @@
+package com.aviation.repository;
+
+import com.aviation.entity.Location;
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the route leg queries against H2, as the mocked repository in the service tests cannot.
+ */
+@DataJpaTest
+class TransportationRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    private Location taksimSquare;
+    private Location istanbulAirport;
+    private Location londonHeathrow;
+    private Location wembleyStadium;
+    private Transportation bus;
+    private Transportation flight;
+    private Transportation uber;
+
+    @BeforeEach
+    void setUp() {
+        taksimSquare = persist(new Location(null, "Taksim Square", "Turkey", "Istanbul", "CCIST"));
+        istanbulAirport = persist(new Location(null, "Istanbul Airport", "Turkey", "Istanbul", "IST"));
+        londonHeathrow = persist(new Location(null, "London Heathrow", "UK", "London", "LHR"));
+        wembleyStadium = persist(new Location(null, "Wembley Stadium", "UK", "London", "WEMB"));
+        bus = persist(new Transportation(null, taksimSquare, istanbulAirport, TransportationType.BUS, Arrays.asList(1, 2)));
+        flight = persist(new Transportation(null, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1)));
+        uber = persist(new Transportation(null, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1)));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void groundLegsTouchingTheBatchOnBothSides() {
+        var legs = transportationRepository.findGroundLegsTouchingOperatingOn(
+                Set.of(taksimSquare.getId()), Set.of(wembleyStadium.getId()), 1);
+
+        assertEquals(Set.of(row(bus), row(uber)), Set.copyOf(legs));
+    }
+
+    @Test
+    void groundLegsForABatchWithoutDestinations() {
+        assertEquals(List.of(row(bus)), transportationRepository.findGroundLegsDepartingOperatingOn(
+                Set.of(taksimSquare.getId(), istanbulAirport.getId()), 1));
+        assertEquals(List.of(), transportationRepository.findGroundLegsDepartingOperatingOn(
+                Set.of(taksimSquare.getId()), 3));
+    }
+
+    @Test
+    void groundLegsForABatchWithoutOrigins() {
+        assertEquals(List.of(row(uber)), transportationRepository.findGroundLegsArrivingOperatingOn(
+                Set.of(wembleyStadium.getId(), londonHeathrow.getId()), 1));
+        assertEquals(List.of(row(bus)), transportationRepository.findGroundLegsArrivingOperatingOn(
+                Set.of(istanbulAirport.getId()), 2));
+    }
+
+    @Test
+    void flightLegsOfTheDay() {
+        assertEquals(List.of(row(flight)), transportationRepository.findFlightLegsOperatingOn(1));
+        assertEquals(List.of(), transportationRepository.findFlightLegsOperatingOn(2));
+    }
+
+    @Test
+    void legsOfTheDayRestrictedToTypes() {
+        assertEquals(Set.of(row(bus), row(flight), row(uber)), Set.copyOf(transportationRepository.findLegsOperatingOn(1)));
+        assertEquals(Set.of(row(bus), row(flight)), Set.copyOf(transportationRepository.findLegsOfTypesOperatingOn(
+                Set.of(TransportationType.FLIGHT, TransportationType.BUS), 1)));
+    }
+
+    private <T> T persist(T entity) {
+        return entityManager.persist(entity);
+    }
+
+    private static TransportationLegRow row(Transportation transportation) {
+        return new TransportationLegRow(transportation.getId(), transportation.getTransportationType(),
+                transportation.getOriginLocation().getId(), transportation.getDestinationLocation().getId());
+    }
+}
@@ -0,0 +1,116 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.entity.Location;
+import com.aviation.event.LocationChangedEvent;
+import com.aviation.event.LocationChangedEvent.ChangeType;
+import com.aviation.exception.LocationNotFoundException;
+import com.aviation.repository.LocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocationRegistryTest {
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @InjectMocks
+    private LocationRegistry locationRegistry;
+
+    // Stands in for the shared counter in Redis
+    private final AtomicLong generation = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cacheGenerations.current(LocationRegistry.GENERATION)).thenAnswer(invocation -> generation.get());
+        lenient().when(cacheGenerations.advance(LocationRegistry.GENERATION))
+                .thenAnswer(invocation -> generation.incrementAndGet());
+        when(locationRepository.findAll()).thenReturn(List.of(
+                new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST"),
+                new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST")));
+    }
+
+    @Test
+    void lookupsAreServedFromASingleLoad() {
+        assertTrue(locationRegistry.contains(1L));
+        assertFalse(locationRegistry.contains(null));
+        assertEquals("Istanbul Airport", locationRegistry.findById(2L).orElseThrow().getName());
+        assertEquals(1L, locationRegistry.findByCode("CCIST").orElseThrow().getId());
+        assertTrue(locationRegistry.findByCode("LHR").isEmpty());
+
+        verify(locationRepository, times(1)).findAll();
+        verify(locationRepository, never()).findById(any());
+    }
+
+    @Test
+    void missesNeverReachTheDatabase() {
+        assertFalse(locationRegistry.contains(99L));
+        assertThrows(LocationNotFoundException.class, () -> locationRegistry.require(99L));
+
+        // Created through another instance: found once its change is announced
+        when(locationRepository.findAll()).thenReturn(List.of(
+                new Location(3L, "London Heathrow", "UK", "London", "LHR")));
+        generation.incrementAndGet();
+
+        assertTrue(locationRegistry.contains(3L));
+        verify(locationRepository, never()).findById(any());
+    }
+
+    @Test
+    void changesMadeElsewhereReloadTheRegistry() {
+        assertEquals("IST", locationRegistry.findById(2L).orElseThrow().getLocationCode());
+
+        when(locationRepository.findAll()).thenReturn(List.of(
+                new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "ISL")));
+        generation.incrementAndGet();
+
+        assertEquals("ISL", locationRegistry.findById(2L).orElseThrow().getLocationCode());
+        assertFalse(locationRegistry.findById(1L).isPresent());
+        verify(locationRepository, times(2)).findAll();
+    }
+
+    @Test
+    void locationChangesUpdateTheRegistryInPlace() {
+        locationRegistry.onApplicationReady();
+        when(locationRepository.findById(2L)).thenReturn(Optional.of(
+                new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "ISL")));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(
+                new Location(3L, "London Heathrow", "UK", "London", "LHR")));
+
+        locationRegistry.onLocationChanged(new LocationChangedEvent(2L, ChangeType.UPDATED));
+        locationRegistry.onLocationChanged(new LocationChangedEvent(3L, ChangeType.CREATED));
+        locationRegistry.onLocationChanged(new LocationChangedEvent(1L, ChangeType.DELETED));
+
+        assertTrue(locationRegistry.findByCode("IST").isEmpty());
+        assertEquals(2L, locationRegistry.findByCode("ISL").orElseThrow().getId());
+        assertEquals("LHR", locationRegistry.findById(3L).orElseThrow().getLocationCode());
+        assertFalse(locationRegistry.contains(1L));
+        assertEquals(2, locationRegistry.size());
+        assertEquals(3, generation.get());
+        // Its own changes do not make this instance reload
+        verify(locationRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,119 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.Location;
+import com.aviation.service.LocationRegistry.Locations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class LocationSearchIndexTest {
+
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @InjectMocks
+    private LocationSearchIndex locationSearchIndex;
+
+    private Location istanbulAirport;
+
+    @BeforeEach
+    void setUp() {
+        istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        serve(0, List.of(
+                new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST"),
+                istanbulAirport,
+                new Location(3L, "São Paulo Guarulhos", "Brazil", "São Paulo", "GRU")));
+    }
+
+    @Test
+    void testPrefixesAreCaseAndAccentInsensitiveAndExactCodesRankFirst() {
+        assertEquals(List.of("IST", "CCIST"), codes(locationSearchIndex.search("ist", 10)));
+        assertEquals(List.of("GRU"), codes(locationSearchIndex.search("SAO pau", 10)));
+        assertEquals(List.of("IST"), codes(locationSearchIndex.search("istanbul", 1)));
+        assertTrue(locationSearchIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testTurkishAndOtherUndecomposedLettersAreFolded() {
+        serve(0, List.of(
+                new Location(1L, "Kadıköy Pier", "Turkey", "Istanbul", "KDK"),
+                new Location(2L, "Sarıyer", "Turkey", "Istanbul", "SRY"),
+                new Location(3L, "İzmir Adnan Menderes", "Turkey", "İzmir", "ADB"),
+                new Location(4L, "Straße des 17. Juni", "Germany", "Berlin", "STR17"),
+                new Location(5L, "Københavns Lufthavn", "Denmark", "København", "CPH"),
+                new Location(6L, "Łódź Władysław Reymont", "Poland", "Łódź", "LCJ")));
+
+        assertEquals(List.of("KDK"), codes(locationSearchIndex.search("kadikoy", 10)));
+        assertEquals(List.of("KDK"), codes(locationSearchIndex.search("KADIKÖY", 10)));
+        assertEquals(List.of("SRY"), codes(locationSearchIndex.search("sariyer", 10)));
+        assertEquals(List.of("ADB"), codes(locationSearchIndex.search("izmir", 10)));
+        assertEquals(List.of("STR17"), codes(locationSearchIndex.search("strasse", 10)));
+        assertEquals(List.of("CPH"), codes(locationSearchIndex.search("kobenhavn", 10)));
+        assertEquals(List.of("LCJ"), codes(locationSearchIndex.search("lodz", 10)));
+        assertEquals("kadikoy sariyer", LocationSearchIndex.normalize("Kadıköy Sarıyer"));
+    }
+
+    @Test
+    void testChangesArePickedUpWhenTheRegistryGenerationMovesOn() {
+        locationSearchIndex.search("ist", 10);
+
+        istanbulAirport.setName("Yeni Havalimanı");
+        istanbulAirport.setCity("Arnavutköy");
+        serve(1, List.of(new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST"), istanbulAirport));
+
+        assertEquals(List.of("IST"), codes(locationSearchIndex.search("arnavutkoy", 10)));
+        assertEquals(List.of("IST"), codes(locationSearchIndex.search("havalimani", 10)));
+        assertEquals(List.of("CCIST"), codes(locationSearchIndex.search("istanbul", 10)));
+
+        serve(2, List.of(new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST")));
+
+        assertTrue(locationSearchIndex.search("yeni", 10).isEmpty());
+    }
+
+    @Test
+    void testRankedMatchesAreNeverCutByTheCandidateCap() {
+        var locations = new ArrayList<Location>();
+        // Enough "abacus" tokens, which sort before "aberdeen" and "abz", to exhaust the candidate cap
+        for (long id = 1; id <= 2_100; id++) {
+            locations.add(new Location(id, "Station " + id, "Nowhere", "Abacus", "C" + id + "X"));
+        }
+        locations.add(new Location(9_999L, "Aberdeen", "UK", "Aberdeen", "ABZ"));
+        serve(0, locations);
+
+        assertEquals(List.of("ABZ"), codes(locationSearchIndex.search("ab", 1)));
+        assertEquals(List.of("ABZ"), codes(locationSearchIndex.search("aberdeen", 10)));
+    }
+
+    @Test
+    void testRankedMatchesStopAtTheLimitInResultOrder() {
+        var locations = new ArrayList<Location>();
+        for (long id = 1; id <= 500; id++) {
+            locations.add(new Location(id, "Airfield " + id, "Nowhere", "Nowhere", String.format("A%03d", id)));
+        }
+        serve(0, locations);
+
+        assertEquals(List.of("A001", "A002", "A003"), codes(locationSearchIndex.search("a", 3)));
+        assertEquals(List.of("A100"), codes(locationSearchIndex.search("a100", 5)));
+    }
+
+    private void serve(long generation, List<Location> locations) {
+        lenient().when(locationRegistry.locations()).thenReturn(
+                new Locations(generation, locations.stream().map(LocationDTO::from).toList()));
+    }
+
+    private static List<String> codes(List<LocationDTO> locations) {
+        return locations.stream().map(LocationDTO::getLocationCode).toList();
+    }
+}
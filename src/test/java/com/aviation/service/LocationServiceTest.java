@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +24,9 @@ class LocationServiceTest {
     @Mock
     private LocationRepository locationRepository;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private LocationService locationService;
     
@@ -0,0 +1,152 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.dto.LocationDTO;
+import com.aviation.dto.NearbyLocationDTO;
+import com.aviation.entity.Location;
+import com.aviation.entity.TransportationType;
+import com.aviation.exception.LocationNotFoundException;
+import com.aviation.service.LocationRegistry.Locations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocationSpatialIndexTest {
+
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @Mock
+    private RouteLegCache legCache;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @InjectMocks
+    private LocationSpatialIndex locationSpatialIndex;
+
+    private List<Location> locations;
+
+    @BeforeEach
+    void setUp() {
+        locations = List.of(
+                located(1L, "Taksim Square", "CCIST", 41.0370, 28.9850),
+                located(2L, "Istanbul Airport", "IST", 41.2753, 28.7519),
+                located(3L, "Sabiha Gokcen Airport", "SAW", 40.8986, 29.3092),
+                located(4L, "Ankara Esenboga Airport", "ESB", 40.1281, 32.9951),
+                located(5L, "London Heathrow Airport", "LHR", 51.4700, -0.4543),
+                new Location(6L, "Wembley Stadium", "United Kingdom", "London", "WEMB"));
+        serve(0, locations);
+    }
+
+    @Test
+    void nearestOrdersByDistanceAndSkipsUnlocatedLocations() {
+        var nearby = locationSpatialIndex.nearest(41.0, 29.0, 10, null, false);
+
+        assertEquals(List.of("CCIST", "SAW", "IST", "ESB", "LHR"), codes(nearby));
+        assertEquals(4.3, nearby.get(0).getDistanceKm(), 0.5);
+        assertEquals(5, locationSpatialIndex.size());
+    }
+
+    @Test
+    void radiusBoundsTheResult() {
+        var nearby = locationSpatialIndex.nearest(41.0, 29.0, 10, 50.0, false);
+
+        assertEquals(List.of("CCIST", "SAW", "IST"), codes(nearby));
+    }
+
+    @Test
+    void nearestAirportsExcludesTheLocationAndNonAirports() {
+        when(legCache.flightsOn(anyInt())).thenReturn(List.of());
+        when(legCache.flightsOn(1)).thenReturn(List.of(flight(2, 5), flight(3, 4)));
+
+        var airports = locationSpatialIndex.nearestAirports(1L, 2, null);
+
+        assertEquals(List.of("SAW", "IST"), codes(airports));
+    }
+
+    @Test
+    void nearestAirportsRejectsUnknownAndUnlocatedLocations() {
+        when(locationRegistry.contains(99L)).thenReturn(false);
+        when(locationRegistry.contains(6L)).thenReturn(true);
+
+        assertThrows(LocationNotFoundException.class, () -> locationSpatialIndex.nearestAirports(99L, 5, null));
+        assertThrows(IllegalArgumentException.class, () -> locationSpatialIndex.nearestAirports(6L, 5, null));
+        assertThrows(IllegalArgumentException.class, () -> locationSpatialIndex.nearest(91, 0, 5, null, false));
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        // Enough far-away points that the query walks grid cells rather than scanning every point
+        var locations = new ArrayList<Location>();
+        locations.add(located(1L, "Fiji Nadi", "NAN", -17.7553, 177.4434));
+        locations.add(located(2L, "Samoa Faleolo", "APW", -13.8297, -172.0083));
+        for (int i = 0; i < 5_000; i++) {
+            locations.add(located(100L + i, "Filler " + i, "F" + i, 60 + i % 50 * 0.2, i / 50 * 0.2));
+        }
+        serve(0, locations);
+
+        var nearby = locationSpatialIndex.nearest(-15.0, 179.9, 5, 1_000.0, false);
+
+        assertEquals(Set.of("NAN", "APW"), Set.copyOf(codes(nearby)));
+    }
+
+    @Test
+    void changesArePickedUpWhenTheRegistryGenerationMovesOn() {
+        assertEquals(List.of("LHR"), codes(locationSpatialIndex.nearest(51.5, -0.1, 1, null, false)));
+
+        var moved = new ArrayList<>(locations.subList(3, locations.size()));
+        moved.add(located(1L, "Taksim Square", "CCIST", 51.5072, -0.1276));
+        serve(1, moved);
+
+        assertEquals(List.of("CCIST", "LHR"), codes(locationSpatialIndex.nearest(51.5, -0.1, 2, null, false)));
+        assertEquals(List.of("ESB"), codes(locationSpatialIndex.nearest(41.0, 29.0, 10, 500.0, false)));
+    }
+
+    @Test
+    void airportsAreReadAgainWhenADayGenerationMovesOn() {
+        when(legCache.flightsOn(anyInt())).thenReturn(List.of());
+        when(legCache.flightsOn(3)).thenReturn(List.of(flight(2, 5)), List.of(flight(2, 5), flight(3, 5)));
+        assertEquals(List.of("IST"), codes(locationSpatialIndex.nearest(41.0, 29.0, 5, 500.0, true)));
+        assertEquals(List.of("IST"), codes(locationSpatialIndex.nearest(41.0, 29.0, 5, 500.0, true)));
+        verify(legCache, times(1)).flightsOn(3);
+
+        lenient().when(cacheGenerations.current(RouteReachabilityIndex.generationName(3))).thenReturn(1L);
+
+        assertEquals(List.of("SAW", "IST"), codes(locationSpatialIndex.nearest(41.0, 29.0, 5, 500.0, true)));
+    }
+
+    private void serve(long generation, List<Location> locations) {
+        lenient().when(locationRegistry.locations()).thenReturn(
+                new Locations(generation, locations.stream().map(LocationDTO::from).toList()));
+    }
+
+    private RouteLeg flight(int originId, int destinationId) {
+        return new RouteLeg((long) (originId * 10 + destinationId), TransportationType.FLIGHT,
+                LocationDTO.from(locations.get(originId - 1)), LocationDTO.from(locations.get(destinationId - 1)));
+    }
+
+    private static Location located(Long id, String name, String code, double latitude, double longitude) {
+        return new Location(id, name, "Country", "City", code, latitude, longitude);
+    }
+
+    private static List<String> codes(List<NearbyLocationDTO> nearby) {
+        return nearby.stream().map(location -> location.getLocation().getLocationCode()).toList();
+    }
+}
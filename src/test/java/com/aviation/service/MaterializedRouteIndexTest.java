@@ -0,0 +1,162 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.Location;
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.repository.TransportationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.aviation.service.RouteLegFixtures.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MaterializedRouteIndexTest {
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @InjectMocks
+    private MaterializedRouteIndex materializedRouteIndex;
+
+    private final LocalDate monday = LocalDate.of(2025, 3, 10);
+
+    private Location taksimSquare;
+    private Location londonHeathrow;
+    private Location wembleyStadium;
+    private Transportation bus;
+    private Transportation flight;
+
+    @BeforeEach
+    void setUp() {
+        taksimSquare = new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST");
+        var istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
+        wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+
+        bus = new Transportation(1L, taksimSquare, istanbulAirport, TransportationType.BUS, Arrays.asList(1));
+        flight = new Transportation(2L, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1));
+
+        for (var location : List.of(taksimSquare, istanbulAirport, londonHeathrow, wembleyStadium)) {
+            lenient().when(locationRegistry.require(location.getId())).thenReturn(LocationDTO.from(location));
+        }
+        ReflectionTestUtils.setField(materializedRouteIndex, "enabled", true);
+    }
+
+    @Test
+    void testRebuildServesAllPairs() {
+        when(transportationRepository.findLegsOperatingOn(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight)));
+
+        materializedRouteIndex.rebuild();
+
+        assertTrue(materializedRouteIndex.isServing());
+        assertEquals(1, materializedRouteIndex.findRoutes(1L, 3L, monday).size());
+        assertEquals(1, materializedRouteIndex.findRoutes(2L, 3L, monday).size());
+        assertEquals(0, materializedRouteIndex.findRoutes(1L, 3L, monday.plusDays(1)).size());
+        assertEquals(2, materializedRouteIndex.getStats().pairs());
+    }
+
+    @Test
+    void testNewTransferOnlyRecomputesPairsItCanJoin() {
+        when(transportationRepository.findLegsOperatingOn(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight)));
+        materializedRouteIndex.rebuild();
+
+        var uber = new Transportation(3L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight), row(uber)));
+        when(cacheGenerations.advance(MaterializedRouteIndex.generationName(1))).thenReturn(1L);
+
+        materializedRouteIndex.onTransportationChanged(new TransportationChangedEvent(
+                null, TransportationChangedEvent.LegState.from(uber)));
+        when(cacheGenerations.current(MaterializedRouteIndex.generationName(1))).thenReturn(1L);
+
+        // As an after-flight transfer: Taksim -> Wembley and Istanbul Airport -> Wembley;
+        // as a before-flight transfer: Heathrow has no departing flights
+        assertEquals(1, materializedRouteIndex.findRoutes(1L, 4L, monday).size());
+        assertEquals(3, materializedRouteIndex.findRoutes(1L, 4L, monday).get(0).getSegments().size());
+        assertEquals(1, materializedRouteIndex.findRoutes(2L, 4L, monday).size());
+        assertEquals(2, materializedRouteIndex.getStats().lastIncrementalPairs());
+        assertEquals(taksimSquare.getId(),
+                materializedRouteIndex.findRoutes(1L, 4L, monday).get(0).getSegments().get(0).from().getId());
+        verify(transportationRepository, times(2)).findLegsOperatingOn(1);
+    }
+
+    @Test
+    void testChangeMadeOnAnotherInstanceRebuildsTheDayBeforeServingIt() {
+        when(transportationRepository.findLegsOperatingOn(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight)));
+        materializedRouteIndex.rebuild();
+        assertEquals(0, materializedRouteIndex.findRoutes(1L, 4L, monday).size());
+
+        var uber = new Transportation(3L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight), row(uber)));
+        when(cacheGenerations.current(MaterializedRouteIndex.generationName(1))).thenReturn(1L);
+
+        assertEquals(1, materializedRouteIndex.findRoutes(1L, 4L, monday).size());
+        assertEquals(1, materializedRouteIndex.findRoutes(2L, 4L, monday).size());
+        verify(transportationRepository, times(2)).findLegsOperatingOn(1);
+        verify(transportationRepository, times(1)).findLegsOperatingOn(2);
+    }
+
+    @Test
+    void testChangeCommittedDuringTheInitialBuildIsNotLost() {
+        var uber = new Transportation(3L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        materializedRouteIndex.onTransportationChanged(new TransportationChangedEvent(
+                null, TransportationChangedEvent.LegState.from(uber)));
+        verify(cacheGenerations).advance(MaterializedRouteIndex.generationName(1));
+        verify(transportationRepository, never()).findLegsOperatingOn(anyInt());
+
+        // Monday is loaded before the change commits, and its generation has moved on by the end of the build
+        when(transportationRepository.findLegsOperatingOn(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(
+                List.of(row(bus), row(flight)), List.of(row(bus), row(flight), row(uber)));
+        when(cacheGenerations.current(MaterializedRouteIndex.generationName(1))).thenReturn(0L, 1L);
+
+        materializedRouteIndex.rebuild();
+
+        assertEquals(1, materializedRouteIndex.findRoutes(1L, 4L, monday).size());
+        verify(transportationRepository, times(2)).findLegsOperatingOn(1);
+    }
+
+    @Test
+    void testRenamedLocationIsServedWithoutRebuild() {
+        when(transportationRepository.findLegsOperatingOn(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight)));
+        materializedRouteIndex.rebuild();
+
+        var renamed = LocationDTO.from(londonHeathrow);
+        renamed.setName("Heathrow Airport");
+        when(locationRegistry.require(3L)).thenReturn(renamed);
+
+        var segments = materializedRouteIndex.findRoutes(1L, 3L, monday).get(0).getSegments();
+        assertEquals("Heathrow Airport", segments.get(1).to().getName());
+        assertEquals("Taksim Square", segments.get(0).from().getName());
+        verify(transportationRepository, times(7)).findLegsOperatingOn(anyInt());
+    }
+}
@@ -0,0 +1,111 @@
+package com.aviation.service;
+
+import com.aviation.entity.TransportationType;
+import com.aviation.event.LocationChangedEvent;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
+import com.aviation.repository.TransportationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteCacheInvalidatorTest {
+
+    @Mock
+    private RouteCacheKeyIndex keyIndex;
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache routesCache;
+
+    @Mock
+    private Cache legsCache;
+
+    @Mock
+    private Cache missesCache;
+
+    @Mock
+    private Cache responsesCache;
+
+    @InjectMocks
+    private RouteCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache("routes")).thenReturn(routesCache);
+        lenient().when(cacheManager.getCache("routeLegs")).thenReturn(legsCache);
+        when(cacheManager.getCache("routeResponses")).thenReturn(responsesCache);
+    }
+
+    @Test
+    void testNewFlightEvictsOnlyPairsItCanJoin() {
+        // Flight IST(2) -> LHR(3) on Monday; Taksim(1) feeds IST, LHR feeds Wembley(4)
+        var flight = new LegState(10L, TransportationType.FLIGHT, 2L, 3L, Set.of(1));
+        when(transportationRepository.findGroundOriginIdsInto(2L)).thenReturn(List.of(1L));
+        when(transportationRepository.findGroundDestinationIdsFrom(3L)).thenReturn(List.of(4L));
+        when(keyIndex.keysBetween(Set.of(1L, 2L), Set.of(3L, 4L), 1))
+                .thenReturn(Set.of("route:1:4:2025-03-10"));
+        when(keyIndex.keysDependingOnNetwork(1)).thenReturn(Set.of("reachable:1:2025-03-10:false"));
+        when(cacheManager.getCache("routeMisses")).thenReturn(missesCache);
+
+        invalidator.onTransportationChanged(new TransportationChangedEvent(null, flight));
+
+        verify(routesCache).evict("route:1:4:2025-03-10");
+        verify(routesCache).evict("reachable:1:2025-03-10:false");
+        verify(responsesCache).evict("route:1:4:2025-03-10");
+        verify(routesCache, never()).clear();
+        verify(legsCache).evict("flight-rows:1");
+        // A new flight can turn remembered empty searches into hits
+        verify(missesCache).clear();
+    }
+
+    @Test
+    void testGroundTransferEvictsSearchesFromItsOriginAndToItsDestination() {
+        var bus = new LegState(11L, TransportationType.BUS, 1L, 2L, Set.of(2));
+        when(keyIndex.keysFrom(1L, 2)).thenReturn(Set.of("route:1:3:2025-03-11"));
+        when(keyIndex.keysTo(2L, 2)).thenReturn(Set.of());
+        when(keyIndex.keysDependingOnNetwork(2)).thenReturn(Set.of());
+
+        invalidator.onTransportationChanged(new TransportationChangedEvent(bus, null));
+
+        verify(routesCache).evict("route:1:3:2025-03-11");
+        verify(legsCache).evict("ground-rows-from:1:2");
+        verify(legsCache).evict("ground-rows-into:2:2");
+        // Ground legs need no neighbourhood lookup
+        verifyNoInteractions(transportationRepository);
+    }
+
+    @Test
+    void testRenamedLocationEvictsEntriesThatEmbedIt() {
+        when(keyIndex.keysMentioning(3L)).thenReturn(Set.of("route:1:4:2025-03-10", "route:2:3:2025-03-12"));
+
+        invalidator.onLocationChanged(new LocationChangedEvent(3L, LocationChangedEvent.ChangeType.UPDATED));
+
+        verify(routesCache).evict("route:1:4:2025-03-10");
+        verify(routesCache).evict("route:2:3:2025-03-12");
+        verify(responsesCache).evict("route:1:4:2025-03-10");
+        verify(responsesCache, never()).clear();
+        // Leg tiers hold location ids only
+        verifyNoInteractions(legsCache);
+    }
+}
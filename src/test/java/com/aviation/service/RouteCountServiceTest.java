@@ -0,0 +1,53 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteCountRequest;
+import com.aviation.dto.RouteCountRequest.Pair;
+import com.aviation.dto.RouteDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteCountServiceTest {
+
+    @Mock
+    private RouteService routeService;
+
+    @Mock
+    private TransportationValidityIndex validityIndex;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("routes");
+
+    @Test
+    void testCachedFullSearchIsCountedWithoutComputing() {
+        var routeCountService = new RouteCountService(routeService, cacheManager, validityIndex);
+        var monday = LocalDate.of(2025, 3, 10);
+        var scheduleDate = LocalDate.of(2025, 3, 3);
+        var constraints = RouteConstraints.none();
+        when(validityIndex.scheduleDate(monday)).thenReturn(scheduleDate);
+        cacheManager.getCache("routes").put(RouteCacheKey.route(1L, 4L, scheduleDate), List.of(new RouteDTO(), new RouteDTO()));
+        when(routeService.countRoutes(Set.of(new Pair(2L, 4L)), monday, constraints)).thenReturn(Map.of(new Pair(2L, 4L), 0));
+
+        var counts = routeCountService.countRoutes(
+                new RouteCountRequest(monday, List.of(new Pair(1L, 4L), new Pair(2L, 4L))), constraints);
+
+        assertEquals(2, counts.get(0).routeCount());
+        assertTrue(counts.get(0).available());
+        assertEquals(0, counts.get(1).routeCount());
+        assertFalse(counts.get(1).available());
+        verifyNoMoreInteractions(routeService);
+    }
+}
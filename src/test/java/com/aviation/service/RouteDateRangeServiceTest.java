@@ -0,0 +1,92 @@
+package com.aviation.service;
+
+import com.aviation.dto.RouteDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteDateRangeServiceTest {
+
+    @Mock
+    private RouteService routeService;
+
+    @Mock
+    private TransportationValidityIndex validityIndex;
+
+    @InjectMocks
+    private RouteDateRangeService routeDateRangeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(routeDateRangeService, "maxDays", 62);
+    }
+
+    @Test
+    void testEachWeekdayIsSearchedOnce() {
+        var constraints = RouteConstraints.none();
+        when(validityIndex.scheduleDate(any(LocalDate.class)))
+                .thenAnswer(invocation -> SchedulePeriod.always().scheduleDate(invocation.getArgument(0)));
+        when(routeService.findRoutes(eq(1L), eq(4L), any(LocalDate.class), eq(constraints)))
+                .thenAnswer(invocation -> List.of(new RouteDTO(new ArrayList<>())));
+
+        var from = LocalDate.of(2025, 3, 1);
+        var result = routeDateRangeService.findRoutes(1L, 4L, from, from.plusDays(29), constraints);
+
+        assertEquals(30, result.size());
+        assertEquals(from.plusDays(29), result.get(29).date());
+        assertSame(result.get(0).routes(), result.get(7).routes());
+        verify(routeService, times(7)).findRoutes(eq(1L), eq(4L), any(LocalDate.class), eq(constraints));
+    }
+
+    @Test
+    void testEachWeekdayIsSearchedOncePerSeason() {
+        var constraints = RouteConstraints.none();
+        var summer = new SchedulePeriod(LocalDate.of(2025, 6, 1), null, Set.of());
+        var spring = new SchedulePeriod(null, LocalDate.of(2025, 5, 31), Set.of(7L));
+        when(validityIndex.scheduleDate(any(LocalDate.class))).thenAnswer(invocation -> {
+            LocalDate date = invocation.getArgument(0);
+            return (date.isBefore(summer.start()) ? spring : summer).scheduleDate(date);
+        });
+        when(routeService.findRoutes(eq(1L), eq(4L), any(LocalDate.class), eq(constraints)))
+                .thenAnswer(invocation -> List.of(new RouteDTO(new ArrayList<>())));
+
+        var from = LocalDate.of(2025, 5, 26);
+        var result = routeDateRangeService.findRoutes(1L, 4L, from, from.plusDays(13), constraints);
+
+        assertEquals(14, result.size());
+        // Both Sundays of the summer share a search; the Mondays either side of the boundary do not
+        assertSame(result.get(6).routes(), result.get(13).routes());
+        assertNotSame(result.get(0).routes(), result.get(7).routes());
+        verify(routeService, times(13)).findRoutes(eq(1L), eq(4L), any(LocalDate.class), eq(constraints));
+    }
+
+    @Test
+    void testRejectsInvertedAndOversizedRanges() {
+        var from = LocalDate.of(2025, 3, 10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> routeDateRangeService.findRoutes(1L, 4L, from, from.minusDays(1), RouteConstraints.none()));
+        assertThrows(IllegalArgumentException.class,
+                () -> routeDateRangeService.findRoutes(1L, 4L, from, from.plusDays(62), RouteConstraints.none()));
+    }
+}
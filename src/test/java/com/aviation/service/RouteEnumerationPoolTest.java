@@ -0,0 +1,51 @@
+package com.aviation.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteEnumerationPoolTest {
+
+    private final RouteEnumerationPool pool = new RouteEnumerationPool(4, 100, 3);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testLargeWorkIsSplitWithinCapAndKeepsOrder() {
+        var items = IntStream.range(0, 1000).boxed().toList();
+        var chunks = ConcurrentHashMap.<List<Integer>>newKeySet();
+
+        var results = pool.map(items, item -> 1, chunk -> {
+            chunks.add(chunk);
+            return new ArrayList<>(chunk);
+        });
+
+        assertEquals(items, results);
+        assertEquals(3, chunks.size());
+    }
+
+    @Test
+    void testSmallWorkRunsOnCallingThread() {
+        var caller = Thread.currentThread();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        var results = pool.map(List.of(1, 2, 3), item -> 10, chunk -> {
+            threads.add(Thread.currentThread());
+            return chunk;
+        });
+
+        assertEquals(List.of(1, 2, 3), results);
+        assertTrue(threads.size() == 1 && threads.contains(caller));
+    }
+}
@@ -0,0 +1,100 @@
+package com.aviation.service;
+
+import com.aviation.entity.Location;
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import com.aviation.repository.TransportationRepository;
+import com.aviation.service.RouteLegBatcher.GroundRows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.aviation.service.RouteLegFixtures.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteLegBatcherTest {
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @InjectMocks
+    private RouteLegBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batcher, "window", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(batcher, "maxSize", 2);
+    }
+
+    @Test
+    void testConcurrentSearchesShareOneQuery() {
+        var taksimSquare = new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST");
+        var istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        var londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
+        var wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+        var bus = new Transportation(1L, taksimSquare, istanbulAirport, TransportationType.BUS, Arrays.asList(1));
+        var uber = new Transportation(2L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        when(transportationRepository.findGroundLegsTouchingOperatingOn(Set.of(1L), Set.of(3L, 4L), 1))
+                .thenReturn(List.of(row(bus), row(uber)));
+
+        // The second search fills the batch, so the leader does not wait out the window
+        var first = CompletableFuture.supplyAsync(() -> batcher.load(1, 1L, 3L));
+        GroundRows second = batcher.load(1, null, 4L);
+
+        assertEquals(1, first.join().departing().size());
+        assertEquals(0, first.join().arriving().size());
+        assertNull(second.departing());
+        assertEquals(List.of(row(uber)), second.arriving());
+        verify(transportationRepository, times(1)).findGroundLegsTouchingOperatingOn(Set.of(1L), Set.of(3L, 4L), 1);
+    }
+
+    @Test
+    void testBatchAskingForOneSideQueriesOnlyThatSide() {
+        var londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
+        var wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+        var uber = new Transportation(2L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        ReflectionTestUtils.setField(batcher, "window", Duration.ZERO);
+        when(transportationRepository.findGroundLegsArrivingOperatingOn(Set.of(4L), 1)).thenReturn(List.of(row(uber)));
+        when(transportationRepository.findGroundLegsDepartingOperatingOn(Set.of(3L), 1)).thenReturn(List.of(row(uber)));
+
+        assertEquals(List.of(row(uber)), batcher.load(1, null, 4L).arriving());
+        assertEquals(List.of(row(uber)), batcher.load(1, 3L, null).departing());
+        verify(transportationRepository, never()).findGroundLegsTouchingOperatingOn(any(), any(), anyInt());
+    }
+
+    @Test
+    void testErrorInTheLeaderFailsEveryFollower() {
+        when(transportationRepository.findGroundLegsTouchingOperatingOn(Set.of(1L), Set.of(3L, 4L), 1))
+                .thenThrow(new StackOverflowError());
+
+        var first = CompletableFuture.supplyAsync(() -> batcher.load(1, 1L, 3L));
+        var second = CompletableFuture.supplyAsync(() -> batcher.load(1, null, 4L));
+
+        for (var search : List.of(first, second)) {
+            var failure = assertThrows(ExecutionException.class, () -> search.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.Location;
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import com.aviation.repository.TransportationRepository;
+import com.aviation.service.RouteLegBatcher.GroundRows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.aviation.service.RouteLegFixtures.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteLegCacheTest {
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @Mock
+    private RouteLegBatcher batcher;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("routeLegs");
+
+    private RouteLegCache legCache;
+    private Location londonHeathrow;
+    private Transportation flight;
+    private Transportation uber;
+
+    @BeforeEach
+    void setUp() {
+        legCache = new RouteLegCache(transportationRepository, locationRegistry, batcher, cacheManager);
+        var istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
+        var wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+        flight = new Transportation(1L, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1));
+        uber = new Transportation(2L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        for (var location : List.of(istanbulAirport, londonHeathrow, wembleyStadium)) {
+            lenient().when(locationRegistry.require(location.getId())).thenReturn(LocationDTO.from(location));
+        }
+    }
+
+    @Test
+    void testTiersCacheRowsAndTakeLocationDetailsFromTheRegistry() {
+        when(transportationRepository.findFlightLegsOperatingOn(1)).thenReturn(List.of(row(flight)));
+        when(batcher.load(1, 3L, null)).thenReturn(new GroundRows(List.of(row(uber)), null));
+
+        legCache.flightsOn(1);
+        legCache.groundLegs(3L, null, 1);
+        assertEquals(List.of(row(flight)), cacheManager.getCache("routeLegs").get(RouteLegCache.flightsKey(1)).get());
+
+        // A rename reaches the cached tiers without evicting them
+        var renamed = LocationDTO.from(londonHeathrow);
+        renamed.setName("Heathrow Airport");
+        when(locationRegistry.require(3L)).thenReturn(renamed);
+
+        assertEquals("Heathrow Airport", legCache.flightsOn(1).get(0).destination().getName());
+        assertEquals("Heathrow Airport", legCache.groundLegs(3L, null, 1).departing().get(0).origin().getName());
+        verify(transportationRepository, times(1)).findFlightLegsOperatingOn(1);
+        verify(batcher, times(1)).load(1, 3L, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.aviation.service;
+
+import com.aviation.dto.LocationDTO;
+import com.aviation.entity.Transportation;
+import com.aviation.repository.TransportationLegRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Route legs and projected leg rows built from transportation entities, as the repository and
+ * {@link RouteLegCache} would hand them out.
+ */
+final class RouteLegFixtures {
+
+    private RouteLegFixtures() {
+    }
+
+    static TransportationLegRow row(Transportation transportation) {
+        return new TransportationLegRow(transportation.getId(), transportation.getTransportationType(),
+                transportation.getOriginLocation().getId(), transportation.getDestinationLocation().getId());
+    }
+
+    /**
+     * Legs sharing one location view per location, like a tier read through {@link LocationRegistry}.
+     */
+    static List<RouteLeg> legs(List<Transportation> transportations) {
+        var locations = new HashMap<Long, LocationDTO>();
+        var legs = new ArrayList<RouteLeg>(transportations.size());
+        for (var transportation : transportations) {
+            legs.add(new RouteLeg(
+                    transportation.getId(),
+                    transportation.getTransportationType(),
+                    locations.computeIfAbsent(transportation.getOriginLocation().getId(),
+                            id -> LocationDTO.from(transportation.getOriginLocation())),
+                    locations.computeIfAbsent(transportation.getDestinationLocation().getId(),
+                            id -> LocationDTO.from(transportation.getDestinationLocation()))
+            ));
+        }
+        return legs;
+    }
+}
@@ -0,0 +1,108 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.entity.Location;
+import com.aviation.entity.Transportation;
+import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.repository.TransportationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.aviation.service.RouteLegFixtures.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteReachabilityIndexTest {
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @Mock
+    private TransportationValidityIndex validityIndex;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @InjectMocks
+    private RouteReachabilityIndex reachabilityIndex;
+
+    private final LocalDate monday = LocalDate.of(2025, 3, 10);
+
+    private Transportation bus;
+    private Transportation flight;
+    private Transportation uber;
+
+    @BeforeEach
+    void setUp() {
+        var taksimSquare = new Location(1L, "Taksim Square", "Turkey", "Istanbul", "CCIST");
+        var istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
+        var londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
+        var wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+
+        bus = new Transportation(1L, taksimSquare, istanbulAirport, TransportationType.BUS, Arrays.asList(1, 2));
+        flight = new Transportation(2L, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1, 2));
+        uber = new Transportation(3L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1, 2));
+        lenient().when(validityIndex.periodOf(any())).thenReturn(SchedulePeriod.always());
+    }
+
+    @Test
+    void testReachabilityFollowsSegmentRules() {
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight), row(uber)));
+
+        assertTrue(reachabilityIndex.isReachable(1L, 3L, monday));
+        assertTrue(reachabilityIndex.isReachable(1L, 4L, monday));
+        assertTrue(reachabilityIndex.isReachable(2L, 4L, monday));
+        // Ground-only trips are not routes
+        assertFalse(reachabilityIndex.isReachable(1L, 2L, monday));
+        assertFalse(reachabilityIndex.isReachable(3L, 4L, monday));
+        assertEquals(2, reachabilityIndex.countReachable(1L, monday));
+    }
+
+    @Test
+    void testUnknownLocationIsNeverReportedUnreachable() {
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(locationRegistry.contains(99L)).thenReturn(false);
+
+        assertFalse(reachabilityIndex.isKnownUnreachable(1L, 99L, monday));
+    }
+
+    @Test
+    void testDayIsRebuiltOnlyAfterChange() {
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight)));
+
+        assertTrue(reachabilityIndex.isReachable(1L, 3L, monday));
+        assertTrue(reachabilityIndex.isReachable(2L, 3L, monday));
+        verify(transportationRepository, times(1)).findLegsOperatingOn(1);
+
+        reachabilityIndex.onTransportationChanged(new TransportationChangedEvent(
+                TransportationChangedEvent.LegState.from(flight), null));
+        verify(cacheGenerations).advance(RouteReachabilityIndex.generationName(1));
+        verify(cacheGenerations).advance(RouteReachabilityIndex.generationName(2));
+
+        // Another instance's change reaches this one as a new generation of the day
+        when(cacheGenerations.current(RouteReachabilityIndex.generationName(1))).thenReturn(1L);
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus)));
+
+        assertFalse(reachabilityIndex.isReachable(1L, 3L, monday));
+        verify(transportationRepository, times(2)).findLegsOperatingOn(1);
+    }
+}
@@ -1,27 +1,43 @@
 package com.aviation.service;
 
+import com.aviation.dto.LocationDTO;
+import com.aviation.dto.ReachableDestinationDTO;
+import com.aviation.dto.RouteCountRequest.Pair;
 import com.aviation.dto.RouteDTO;
 import com.aviation.entity.Location;
 import com.aviation.entity.SegmentType;
 import com.aviation.entity.Transportation;
 import com.aviation.entity.TransportationType;
-import com.aviation.repository.LocationRepository;
 import com.aviation.repository.TransportationRepository;
+import com.aviation.service.RouteLegCache.GroundLegs;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
+import static com.aviation.service.RouteLegFixtures.legs;
+import static com.aviation.service.RouteLegFixtures.row;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +47,22 @@ class RouteServiceTest {
     private TransportationRepository transportationRepository;
     
     @Mock
-    private LocationRepository locationRepository;
+    private LocationRegistry locationRegistry;
+    
+    @Mock
+    private RouteReachabilityIndex reachabilityIndex;
+    
+    @Mock
+    private MaterializedRouteIndex materializedRouteIndex;
+    
+    @Mock
+    private RouteLegCache legCache;
+    
+    @Spy
+    private RouteEnumerationPool enumerationPool = RouteEnumerationPool.sequential();
+    
+    @Mock
+    private TransportationValidityIndex validityIndex;
     
     @InjectMocks
     private RouteService routeService;
@@ -47,6 +78,10 @@ class RouteServiceTest {
         istanbulAirport = new Location(2L, "Istanbul Airport", "Turkey", "Istanbul", "IST");
         londonHeathrow = new Location(3L, "London Heathrow", "UK", "London", "LHR");
         wembleyStadium = new Location(4L, "Wembley Stadium", "UK", "London", "WEMB");
+        lenient().when(validityIndex.periodOf(any())).thenReturn(SchedulePeriod.always());
+        for (var location : List.of(taksimSquare, istanbulAirport, londonHeathrow, wembleyStadium)) {
+            lenient().when(locationRegistry.require(location.getId())).thenReturn(LocationDTO.from(location));
+        }
     }
     
     @Test
@@ -57,13 +92,14 @@ class RouteServiceTest {
                 TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
         );
         
-        when(locationRepository.findById(2L)).thenReturn(Optional.of(istanbulAirport));
-        when(locationRepository.findById(3L)).thenReturn(Optional.of(londonHeathrow));
-        when(transportationRepository.findAllRelevantForRoute(2L, 3L, 1)).thenReturn(List.of(flight));
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(3L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(flight)));
+        when(legCache.groundLegs(2L, 3L, 1)).thenReturn(new GroundLegs(List.of(), List.of()));
         
         // When
         var monday = LocalDate.of(2025, 3, 10); // Monday
-        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, monday);
+        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, monday, RouteConstraints.none());
         
         // Then
         assertNotNull(routes);
@@ -86,13 +122,14 @@ class RouteServiceTest {
                 TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
         );
         
-        when(locationRepository.findById(1L)).thenReturn(Optional.of(taksimSquare));
-        when(locationRepository.findById(3L)).thenReturn(Optional.of(londonHeathrow));
-        when(transportationRepository.findAllRelevantForRoute(1L, 3L, 1)).thenReturn(List.of(bus, flight));
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(locationRegistry.contains(3L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(flight)));
+        when(legCache.groundLegs(1L, 3L, 1)).thenReturn(new GroundLegs(legs(List.of(bus)), List.of()));
         
         // When
         var monday = LocalDate.of(2025, 3, 10);
-        List<RouteDTO> routes = routeService.findRoutes(1L, 3L, monday);
+        List<RouteDTO> routes = routeService.findRoutes(1L, 3L, monday, RouteConstraints.none());
         
         // Then
         assertNotNull(routes);
@@ -120,13 +157,15 @@ class RouteServiceTest {
                 TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
         );
         
-        when(locationRepository.findById(1L)).thenReturn(Optional.of(taksimSquare));
-        when(locationRepository.findById(4L)).thenReturn(Optional.of(wembleyStadium));
-        when(transportationRepository.findAllRelevantForRoute(1L, 4L, 1)).thenReturn(List.of(bus, flight, uber));
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(locationRegistry.contains(4L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(flight)));
+        when(legCache.groundLegs(1L, 4L, 1))
+                .thenReturn(new GroundLegs(legs(List.of(bus)), legs(List.of(uber))));
         
         // When
         var monday = LocalDate.of(2025, 3, 10);
-        List<RouteDTO> routes = routeService.findRoutes(1L, 4L, monday);
+        List<RouteDTO> routes = routeService.findRoutes(1L, 4L, monday, RouteConstraints.none());
         
         // Then
         assertNotNull(routes);
@@ -135,21 +174,293 @@ class RouteServiceTest {
         assertEquals(SegmentType.BEFORE_FLIGHT, routes.get(0).getSegments().get(0).segmentType());
         assertEquals(SegmentType.FLIGHT, routes.get(0).getSegments().get(1).segmentType());
         assertEquals(SegmentType.AFTER_FLIGHT, routes.get(0).getSegments().get(2).segmentType());
+        assertEquals(1, routeService.countRoutes(1L, 4L, monday, RouteConstraints.none()));
+    }
+    
+    @Test
+    void testRoutesShareSegmentsAndLocationViews() {
+        // Given - two after-flight transfers from Heathrow to Wembley, served from separately cached tiers
+        var flight = new Transportation(
+                1L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var uber = new Transportation(
+                2L, londonHeathrow, wembleyStadium,
+                TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var subway = new Transportation(
+                3L, londonHeathrow, wembleyStadium,
+                TransportationType.SUBWAY, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(4L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(flight)));
+        when(legCache.groundLegs(2L, 4L, 1))
+                .thenReturn(new GroundLegs(List.of(), legs(List.of(uber, subway))));
+        
+        // When
+        var monday = LocalDate.of(2025, 3, 10);
+        List<RouteDTO> routes = routeService.findRoutes(2L, 4L, monday, RouteConstraints.none());
+        
+        // Then - the flight segment and Heathrow's view are built once for both routes
+        assertEquals(2, routes.size());
+        var first = routes.get(0).getSegments();
+        var second = routes.get(1).getSegments();
+        assertSame(first.get(0), second.get(0));
+        assertSame(first.get(0).to(), first.get(1).from());
+        assertSame(first.get(1).to(), second.get(1).to());
+    }
+    
+    @Test
+    void testConstraintsSkipExcludedTiersAndLegs() {
+        // Given - no before-flight transfers and no UBER
+        var flight = new Transportation(
+                1L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var uber = new Transportation(
+                2L, londonHeathrow, wembleyStadium,
+                TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var subway = new Transportation(
+                3L, londonHeathrow, wembleyStadium,
+                TransportationType.SUBWAY, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var constraints = RouteConstraints.of(
+                List.of(TransportationType.FLIGHT, TransportationType.SUBWAY), null,
+                List.of(SegmentType.FLIGHT, SegmentType.AFTER_FLIGHT));
+        
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(4L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(flight)));
+        when(legCache.groundLegs(null, 4L, 1))
+                .thenReturn(new GroundLegs(List.of(), legs(List.of(uber, subway))));
+        
+        // When
+        var monday = LocalDate.of(2025, 3, 10);
+        List<RouteDTO> routes = routeService.findRoutes(2L, 4L, monday, constraints);
+        
+        // Then
+        assertEquals(1, routes.size());
+        assertEquals(TransportationType.SUBWAY, routes.get(0).getSegments().get(1).type());
+        assertEquals("types=FLIGHT,SUBWAY;segments=FLIGHT,AFTER_FLIGHT", constraints.variant());
+    }
+    
+    @Test
+    void testTopRoutesRankByGroundPreferenceAndCountWithoutBuilding() {
+        // Given - a direct flight and two flight + transfer routes to Wembley
+        var direct = new Transportation(
+                1L, istanbulAirport, wembleyStadium,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var flight = new Transportation(
+                2L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var uber = new Transportation(
+                3L, londonHeathrow, wembleyStadium,
+                TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var subway = new Transportation(
+                4L, londonHeathrow, wembleyStadium,
+                TransportationType.SUBWAY, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(4L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(direct, flight)));
+        when(legCache.groundLegs(2L, 4L, 1))
+                .thenReturn(new GroundLegs(List.of(), legs(List.of(uber, subway))));
+        
+        // When
+        var monday = LocalDate.of(2025, 3, 10);
+        var ranking = RouteRanking.of(List.of(TransportationType.SUBWAY));
+        List<RouteDTO> routes = routeService.findTopRoutes(2L, 4L, monday, RouteConstraints.none(), ranking, 2);
+        
+        // Then - the direct flight first, then the subway transfer ahead of the uber one
+        assertEquals(2, routes.size());
+        assertEquals(1, routes.get(0).getSegments().size());
+        assertEquals(TransportationType.SUBWAY, routes.get(1).getSegments().get(1).type());
+        assertEquals(3, routeService.countRoutes(2L, 4L, monday, RouteConstraints.none()));
+    }
+    
+    @Test
+    void testOutOfSeasonLegsAreSkipped() {
+        // Given
+        var summerFlight = new Transportation(
+                1L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        var yearRoundFlight = new Transportation(
+                2L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        var monday = LocalDate.of(2025, 3, 10); // Monday
+        
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(3L)).thenReturn(true);
+        when(legCache.flightsOn(1)).thenReturn(legs(List.of(summerFlight, yearRoundFlight)));
+        when(legCache.groundLegs(2L, 3L, 1)).thenReturn(new GroundLegs(List.of(), List.of()));
+        when(validityIndex.periodOf(monday)).thenReturn(new SchedulePeriod(null, LocalDate.of(2025, 5, 31), Set.of(1L)));
+        
+        // When
+        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, monday, RouteConstraints.none());
+        
+        // Then
+        assertEquals(1, routes.size());
+        assertEquals(2L, routes.get(0).getSegments().get(0).transportationId());
     }
     
     @Test
     void testNoRoutesForUnavailableDate() {
         // Given - Tuesday (day 2) but no transportations operate on Tuesday
-        when(locationRepository.findById(2L)).thenReturn(Optional.of(istanbulAirport));
-        when(locationRepository.findById(3L)).thenReturn(Optional.of(londonHeathrow));
-        when(transportationRepository.findAllRelevantForRoute(2L, 3L, 2)).thenReturn(Collections.emptyList());
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRegistry.contains(3L)).thenReturn(true);
+        when(legCache.flightsOn(2)).thenReturn(Collections.emptyList());
+        when(legCache.groundLegs(2L, 3L, 2)).thenReturn(new GroundLegs(List.of(), List.of()));
         
         // When
         var tuesday = LocalDate.of(2025, 3, 11); // Tuesday
-        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, tuesday);
+        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, tuesday, RouteConstraints.none());
         
         // Then
         assertNotNull(routes);
         assertEquals(0, routes.size());
     }
+    
+    @Test
+    void testUnreachablePairSkipsDatabase() {
+        // Given - the reachability index proves there is no route on Tuesday
+        var tuesday = LocalDate.of(2025, 3, 11);
+        when(reachabilityIndex.isKnownUnreachable(2L, 3L, tuesday)).thenReturn(true);
+        
+        // When
+        List<RouteDTO> routes = routeService.findRoutes(2L, 3L, tuesday, RouteConstraints.none());
+        
+        // Then
+        assertEquals(0, routes.size());
+        verifyNoInteractions(locationRegistry, transportationRepository, legCache);
+    }
+    
+    @Test
+    void testHasRoutesRejectsUnknownLocation() {
+        when(locationRegistry.contains(99L)).thenReturn(false);
+        
+        assertThrows(RuntimeException.class,
+                () -> routeService.hasRoutes(99L, 3L, LocalDate.of(2025, 3, 10)));
+    }
+    
+    @Test
+    void testFindReachableDestinationsCountsRoutesPerDestination() {
+        // Given - Taksim reaches London by bus + flight and Wembley by bus + flight + uber (two ways)
+        var bus = new Transportation(
+                1L, taksimSquare, istanbulAirport,
+                TransportationType.BUS, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var flight = new Transportation(
+                2L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var uber = new Transportation(
+                3L, londonHeathrow, wembleyStadium,
+                TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var subway = new Transportation(
+                4L, londonHeathrow, wembleyStadium,
+                TransportationType.SUBWAY, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight), row(uber), row(subway)));
+        
+        // When
+        var monday = LocalDate.of(2025, 3, 10);
+        List<ReachableDestinationDTO> reachable = routeService.findReachableDestinations(1L, monday, false);
+        
+        // Then - sorted by location code: LHR, WEMB
+        assertEquals(2, reachable.size());
+        assertEquals("LHR", reachable.get(0).getDestination().getLocationCode());
+        assertEquals(1, reachable.get(0).getRouteCount());
+        assertNull(reachable.get(0).getRoutes());
+        assertEquals("WEMB", reachable.get(1).getDestination().getLocationCode());
+        assertEquals(2, reachable.get(1).getRouteCount());
+    }
+    
+    @Test
+    void testBatchCountLoadsTheDayOnce() {
+        var bus = new Transportation(1L, taksimSquare, istanbulAirport, TransportationType.BUS, Arrays.asList(1));
+        var flight = new Transportation(2L, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1));
+        var uber = new Transportation(3L, londonHeathrow, wembleyStadium, TransportationType.UBER, Arrays.asList(1));
+        for (long id = 1; id <= 4; id++) {
+            lenient().when(locationRegistry.contains(id)).thenReturn(true);
+        }
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(bus), row(flight), row(uber)));
+        var monday = LocalDate.of(2025, 3, 10);
+        
+        var counts = routeService.countRoutes(List.of(new Pair(1L, 4L), new Pair(2L, 3L), new Pair(2L, 4L)),
+                monday, RouteConstraints.none());
+        
+        assertEquals(1, counts.get(new Pair(1L, 4L)));
+        assertEquals(1, counts.get(new Pair(2L, 3L)));
+        assertEquals(1, counts.get(new Pair(2L, 4L)));
+        verify(transportationRepository, times(1)).findLegsOperatingOn(1);
+        verifyNoInteractions(legCache);
+    }
+    
+    @Test
+    void testBatchCountLeavesExcludedTypesToTheQuery() {
+        var flight = new Transportation(2L, istanbulAirport, londonHeathrow, TransportationType.FLIGHT, Arrays.asList(1));
+        for (long id = 1; id <= 4; id++) {
+            lenient().when(locationRegistry.contains(id)).thenReturn(true);
+        }
+        var noUber = RouteConstraints.of(List.of(TransportationType.FLIGHT, TransportationType.BUS), null, null);
+        when(transportationRepository.findLegsOfTypesOperatingOn(noUber.transportationTypes(), 1))
+                .thenReturn(List.of(row(flight)));
+        
+        var counts = routeService.countRoutes(List.of(new Pair(2L, 3L)), LocalDate.of(2025, 3, 10), noUber);
+        
+        assertEquals(1, counts.get(new Pair(2L, 3L)));
+        verify(transportationRepository, never()).findLegsOperatingOn(anyInt());
+    }
+    
+    @Test
+    void testFindReachableDestinationsWithRoutes() {
+        // Given
+        var flight = new Transportation(
+                1L, istanbulAirport, londonHeathrow,
+                TransportationType.FLIGHT, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        var uber = new Transportation(
+                2L, londonHeathrow, wembleyStadium,
+                TransportationType.UBER, Arrays.asList(1, 2, 3, 4, 5, 6, 7)
+        );
+        
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(transportationRepository.findLegsOperatingOn(1)).thenReturn(List.of(row(flight), row(uber)));
+        
+        // When
+        var monday = LocalDate.of(2025, 3, 10);
+        List<ReachableDestinationDTO> reachable = routeService.findReachableDestinations(2L, monday, true);
+        
+        // Then
+        assertEquals(2, reachable.size());
+        var wembley = reachable.get(1);
+        assertEquals("WEMB", wembley.getDestination().getLocationCode());
+        assertEquals(1, wembley.getRoutes().size());
+        assertEquals(SegmentType.FLIGHT, wembley.getRoutes().get(0).getSegments().get(0).segmentType());
+        assertEquals(SegmentType.AFTER_FLIGHT, wembley.getRoutes().get(0).getSegments().get(1).segmentType());
+    }
 }
@@ -4,6 +4,7 @@ import com.aviation.dto.TransportationDTO;
 import com.aviation.entity.Location;
 import com.aviation.entity.Transportation;
 import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
 import com.aviation.repository.LocationRepository;
 import com.aviation.repository.TransportationRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +32,12 @@ class TransportationServiceTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private LocationRegistry locationRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransportationService transportationService;
 
@@ -91,8 +99,10 @@ class TransportationServiceTest {
         dto.setTransportationType(TransportationType.FLIGHT);
         dto.setOperatingDays(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
 
-        when(locationRepository.findById(1L)).thenReturn(Optional.of(istanbulAirport));
-        when(locationRepository.findById(2L)).thenReturn(Optional.of(londonHeathrow));
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRepository.getReferenceById(1L)).thenReturn(istanbulAirport);
+        when(locationRepository.getReferenceById(2L)).thenReturn(londonHeathrow);
         when(transportationRepository.save(any(Transportation.class))).thenReturn(flight);
 
         TransportationDTO result = transportationService.createTransportation(dto);
@@ -110,9 +120,10 @@ class TransportationServiceTest {
         dto.setTransportationType(TransportationType.BUS);
         dto.setOperatingDays(Arrays.asList(1, 2, 3));
 
-        when(locationRepository.findById(99L)).thenReturn(Optional.empty());
+        when(locationRegistry.contains(99L)).thenReturn(false);
 
         assertThrows(RuntimeException.class, () -> transportationService.createTransportation(dto));
+        verify(locationRepository, never()).getReferenceById(any());
     }
 
     @Test
@@ -151,8 +162,10 @@ class TransportationServiceTest {
         );
 
         when(transportationRepository.findById(1L)).thenReturn(Optional.of(flight));
-        when(locationRepository.findById(1L)).thenReturn(Optional.of(istanbulAirport));
-        when(locationRepository.findById(2L)).thenReturn(Optional.of(londonHeathrow));
+        when(locationRegistry.contains(1L)).thenReturn(true);
+        when(locationRegistry.contains(2L)).thenReturn(true);
+        when(locationRepository.getReferenceById(1L)).thenReturn(istanbulAirport);
+        when(locationRepository.getReferenceById(2L)).thenReturn(londonHeathrow);
         when(transportationRepository.save(any(Transportation.class))).thenReturn(updatedTransportation);
 
         TransportationDTO result = transportationService.updateTransportation(1L, dto);
@@ -164,16 +177,18 @@ class TransportationServiceTest {
 
     @Test
     void testDeleteTransportation() {
-        when(transportationRepository.existsById(1L)).thenReturn(true);
+        when(transportationRepository.findByIdWithOperatingDays(1L)).thenReturn(Optional.of(flight));
 
         transportationService.deleteTransportation(1L);
 
-        verify(transportationRepository, times(1)).deleteById(1L);
+        verify(transportationRepository, times(1)).delete(flight);
+        verify(eventPublisher).publishEvent(new TransportationChangedEvent(
+                TransportationChangedEvent.LegState.from(flight), null));
     }
 
     @Test
     void testDeleteTransportationNotFound() {
-        when(transportationRepository.existsById(99L)).thenReturn(false);
+        when(transportationRepository.findByIdWithOperatingDays(99L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> transportationService.deleteTransportation(99L));
     }
@@ -0,0 +1,139 @@
+package com.aviation.service;
+
+import com.aviation.config.CacheGenerations;
+import com.aviation.entity.TransportationType;
+import com.aviation.event.TransportationChangedEvent;
+import com.aviation.event.TransportationChangedEvent.LegState;
+import com.aviation.repository.TransportationRepository;
+import com.aviation.repository.TransportationValidity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransportationValidityIndexTest {
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @InjectMocks
+    private TransportationValidityIndex validityIndex;
+
+    @Test
+    void testPeriodsSplitAtRangeBoundaries() {
+        when(transportationRepository.findSeasonalValidities()).thenReturn(List.of(
+                new TransportationValidity(1L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 9, 30)),
+                new TransportationValidity(2L, LocalDate.of(2025, 7, 1), null),
+                new TransportationValidity(3L, null, LocalDate.of(2025, 6, 15))));
+
+        var spring = validityIndex.periodOf(LocalDate.of(2025, 5, 10));
+        assertNull(spring.start());
+        assertEquals(LocalDate.of(2025, 5, 31), spring.end());
+        assertEquals(Set.of(1L, 2L), spring.inactiveIds());
+
+        assertEquals(Set.of(2L), validityIndex.periodOf(LocalDate.of(2025, 6, 15)).inactiveIds());
+        assertEquals(Set.of(2L, 3L), validityIndex.periodOf(LocalDate.of(2025, 6, 16)).inactiveIds());
+
+        var summer = validityIndex.periodOf(LocalDate.of(2025, 8, 4));
+        assertEquals(LocalDate.of(2025, 7, 1), summer.start());
+        assertEquals(LocalDate.of(2025, 9, 30), summer.end());
+        assertEquals(Set.of(3L), summer.inactiveIds());
+        assertSame(summer, validityIndex.periodOf(LocalDate.of(2025, 9, 30)));
+
+        assertEquals(Set.of(1L, 3L), validityIndex.periodOf(LocalDate.of(2026, 1, 1)).inactiveIds());
+    }
+
+    @Test
+    void testDatesOfTheSameSeasonAndWeekdayShareAScheduleDate() {
+        when(transportationRepository.findSeasonalValidities()).thenReturn(List.of(
+                new TransportationValidity(1L, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 9, 30))));
+
+        // 2025-07-01 is a Tuesday, so the season's first Monday is the 7th
+        assertEquals(LocalDate.of(2025, 7, 7), validityIndex.scheduleDate(LocalDate.of(2025, 8, 4)));
+        assertEquals(LocalDate.of(2025, 7, 7), validityIndex.scheduleDate(LocalDate.of(2025, 9, 29)));
+        assertEquals(validityIndex.scheduleDate(LocalDate.of(2025, 3, 10)),
+                validityIndex.scheduleDate(LocalDate.of(2025, 6, 30)));
+    }
+
+    @Test
+    void testNetworkWithoutSeasonsHasASinglePeriod() {
+        when(transportationRepository.findSeasonalValidities()).thenReturn(List.of());
+
+        assertSame(SchedulePeriod.always(), validityIndex.periodOf(LocalDate.of(2025, 3, 10)));
+        assertEquals(validityIndex.scheduleDate(LocalDate.of(2025, 3, 10)),
+                validityIndex.scheduleDate(LocalDate.of(2031, 12, 1)));
+    }
+
+    @Test
+    void testOnlySeasonalChangesAdvanceTheSharedGeneration() {
+        validityIndex.onTransportationChanged(new TransportationChangedEvent(
+                null, new LegState(8L, TransportationType.BUS, 1L, 2L, Set.of(1))));
+        verify(cacheGenerations, never()).advance(anyString());
+
+        validityIndex.onTransportationChanged(new TransportationChangedEvent(
+                null, new LegState(9L, TransportationType.FLIGHT, 2L, 3L, Set.of(1), LocalDate.of(2025, 6, 1), null)));
+        verify(cacheGenerations).advance(TransportationValidityIndex.GENERATION);
+    }
+
+    @Test
+    void testIndexIsRebuiltWhenTheSharedGenerationMovesOn() {
+        when(transportationRepository.findSeasonalValidities()).thenReturn(List.of(),
+                List.of(new TransportationValidity(9L, LocalDate.of(2025, 6, 1), null)));
+        var date = LocalDate.of(2025, 7, 1);
+        validityIndex.periodOf(date);
+        validityIndex.periodOf(date);
+        verify(transportationRepository, times(1)).findSeasonalValidities();
+
+        // A seasonal change committed on another instance
+        when(cacheGenerations.current(TransportationValidityIndex.GENERATION)).thenReturn(1L);
+        assertEquals(LocalDate.of(2025, 6, 1), validityIndex.periodOf(date).start());
+        assertEquals(Set.of(9L), validityIndex.periodOf(LocalDate.of(2025, 5, 1)).inactiveIds());
+    }
+
+    @Test
+    void testManyOverlappingRangesMatchABruteForceScan() {
+        var random = new Random(42);
+        var base = LocalDate.of(2025, 1, 1);
+        var validities = new ArrayList<TransportationValidity>();
+        for (long id = 1; id <= 2_000; id++) {
+            var from = random.nextInt(10) == 0 ? null : base.plusDays(random.nextInt(365));
+            var to = random.nextInt(10) == 0 ? null : (from != null ? from : base).plusDays(random.nextInt(120));
+            validities.add(new TransportationValidity(id, from, to));
+        }
+        when(transportationRepository.findSeasonalValidities()).thenReturn(validities);
+
+        for (int offset = -10; offset < 500; offset += 7) {
+            var date = base.plusDays(offset);
+            var expected = new HashSet<Long>();
+            for (var validity : validities) {
+                boolean started = validity.validFrom() == null || !date.isBefore(validity.validFrom());
+                boolean ended = validity.validTo() != null && date.isAfter(validity.validTo());
+                if (!started || ended) {
+                    expected.add(validity.transportationId());
+                }
+            }
+            assertEquals(expected, validityIndex.periodOf(date).inactiveIds(), "inactive legs on " + date);
+        }
+    }
+}